@@ -0,0 +1,158 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import model.Player;
+import model.PlayerImpl;
+import model.card.Card;
+import model.card.Cards;
+import model.card.Deck;
+import model.card.Hand;
+import model.card.Rank;
+import model.card.Suit;
+import view.CallbackRegistry;
+import view.GameCallback;
+import view.GameEventType;
+
+/**
+ * A simple benchmark which compares the cost of firing an event to 1 to 1000
+ * callbacks through the copy-on-write {@link CallbackRegistry} with the
+ * original loop over an {@link ArrayList}.
+ *
+ * <p>Each configuration is warmed up before it is timed. Results are in
+ * nanoseconds per event fired (to all callbacks).</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.CallbackRegistry
+ */
+public class CallbackDispatchBenchmark
+{
+    private static final int[] CALLBACK_COUNTS = { 1, 10, 100, 1000 };
+    private static final long CALLS_PER_RUN = 20_000_000L;
+    private static final int WARMUP_RUNS = 3;
+
+    private static final Player PLAYER = new PlayerImpl("P1", "Player One", 1000);
+    private static final Card CARD = Cards.of(Suit.HEARTS, Rank.ACE);
+
+    public static void main(final String[] args)
+    {
+        System.out.printf("%10s %15s %15s%n", "callbacks", "ArrayList ns", "registry ns");
+        for (final int count : CALLBACK_COUNTS)
+        {
+            final Collection<GameCallback> list = new ArrayList<>();
+            final CallbackRegistry registry = new CallbackRegistry();
+            final CountingCallback callback = new CountingCallback();
+            for (int i = 0; i < count; i++)
+            {
+                list.add(callback);
+                registry.registerCallback(callback);
+            }
+
+            final long events = Math.max(1, CALLS_PER_RUN / count);
+            for (int i = 0; i < WARMUP_RUNS; i++)
+            {
+                fireList(list, events);
+                fireRegistry(registry, events);
+            }
+            final double listNanos = (double) fireList(list, events) / events;
+            final double registryNanos = (double) fireRegistry(registry, events) / events;
+            System.out.printf("%10d %15.1f %15.1f%n", count, listNanos, registryNanos);
+
+            if (callback.count == 0)
+            {
+                System.out.println("No callbacks invoked");
+            }
+        }
+    }
+
+    /**
+     * Fires the specified number of events by looping over the list, as the
+     * engine originally did.
+     *
+     * @return the elapsed time in ns.
+     */
+    private static long fireList(final Collection<GameCallback> callbacks, final long events)
+    {
+        final long start = System.nanoTime();
+        for (long i = 0; i < events; i++)
+        {
+            for (final GameCallback cb : callbacks)
+            {
+                cb.playerCard(PLAYER, CARD);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Fires the specified number of events through the registry, as the
+     * engine now does.
+     *
+     * @return the elapsed time in ns.
+     */
+    private static long fireRegistry(final CallbackRegistry registry, final long events)
+    {
+        final long start = System.nanoTime();
+        for (long i = 0; i < events; i++)
+        {
+            for (final GameCallback cb : registry.getListeners(GameEventType.PLAYER_CARD))
+            {
+                cb.playerCard(PLAYER, CARD);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * A callback which only counts player card events, so the calls cannot be
+     * optimised away.
+     */
+    private static final class CountingCallback implements GameCallback
+    {
+        private long count;
+
+        @Override
+        public void playerCard(final Player player, final Card card)
+        {
+            count++;
+        }
+
+        @Override
+        public void addPlayer(final Player player)
+        {
+        }
+
+        @Override
+        public void removePlayer(final Player player)
+        {
+        }
+
+        @Override
+        public void betUpdated(final Player player)
+        {
+        }
+
+        @Override
+        public void newDeck(final Deck deck)
+        {
+        }
+
+        @Override
+        public void playerBust(final Player player, final Card card)
+        {
+        }
+
+        @Override
+        public void houseCard(final Hand houseHand, final Card card)
+        {
+        }
+
+        @Override
+        public void houseBust(final Hand houseHand, final Card card)
+        {
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package client;
+
+import java.util.function.Supplier;
+
+import model.card.ByteDeck;
+import model.card.Deck;
+import model.card.DeckImpl;
+
+/**
+ * A simple benchmark which compares the cost of creating a deck and dealing
+ * the first few cards from it, for each deck implementation. A typical
+ * player or house deal only uses a handful of cards before the round resets
+ * the deck.
+ *
+ * <p>Each configuration is warmed up before it is timed. Results are in
+ * nanoseconds per deck.</p>
+ *
+ * <p>Usage: {@code DeckBenchmark [decks]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.ByteDeck
+ */
+public class DeckBenchmark
+{
+    private static final int[] CARDS_DRAWN = { 4, 13, 52 };
+    private static final int WARMUP_RUNS = 3;
+
+    public static void main(final String[] args)
+    {
+        final int deckCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.printf("%6s %18s %18s %18s%n", "cards", "DeckImpl ns", "ByteDeck ns", "ByteDeck lazy ns");
+        long checksum = 0;
+        for (final int cards : CARDS_DRAWN)
+        {
+            for (int i = 0; i < WARMUP_RUNS; i++)
+            {
+                checksum += draw(DeckImpl::createShuffledDeck, deckCount, cards);
+                checksum += draw(ByteDeck::createShuffledDeck, deckCount, cards);
+                checksum += draw(ByteDeck::createLazyShuffledDeck, deckCount, cards);
+            }
+            final double stack = time(DeckImpl::createShuffledDeck, deckCount, cards);
+            final double bytes = time(ByteDeck::createShuffledDeck, deckCount, cards);
+            final double lazy = time(ByteDeck::createLazyShuffledDeck, deckCount, cards);
+            System.out.printf("%6d %18.1f %18.1f %18.1f%n", cards, stack, bytes, lazy);
+        }
+        if (checksum == 0)
+        {
+            System.out.println("No cards drawn");
+        }
+    }
+
+    /**
+     * @return the mean time in ns to create a deck and draw the cards.
+     */
+    private static double time(final Supplier<Deck> decks, final int deckCount, final int cards)
+    {
+        final long start = System.nanoTime();
+        draw(decks, deckCount, cards);
+        return (double) (System.nanoTime() - start) / deckCount;
+    }
+
+    /**
+     * Creates the decks and draws the cards from each.
+     *
+     * @return a checksum of the cards drawn, so the work cannot be optimised
+     * away.
+     */
+    private static long draw(final Supplier<Deck> decks, final int deckCount, final int cards)
+    {
+        long checksum = 0;
+        for (int d = 0; d < deckCount; d++)
+        {
+            final Deck deck = decks.get();
+            for (int c = 0; c < cards; c++)
+            {
+                checksum += deck.removeNextCard().getValue();
+            }
+        }
+        return checksum;
+    }
+
+}
@@ -0,0 +1,154 @@
+package client;
+
+import java.util.function.Supplier;
+
+import model.card.ByteDeck;
+import model.card.Cards;
+import model.card.Deck;
+import model.card.DeckImpl;
+import model.card.ShuffleAlgorithm;
+
+/**
+ * A statistical test client which checks that each deck implementation deals
+ * cards uniformly at random, using chi-squared goodness of fit tests.
+ *
+ * <p>For every deck the first few cards dealt are recorded. The test checks
+ * that each card is equally likely at each of those positions, and that each
+ * ordered pair of first and second cards is equally likely. A test fails if
+ * its statistic is above the critical value for a significance level of
+ * 0.001, so a correct deck fails about one run in a thousand by chance.</p>
+ *
+ * <p>The seeded decks are tested with each {@link ShuffleAlgorithm}, using
+ * lazily shuffled decks so only the cards dealt draw random numbers.</p>
+ *
+ * <p>Usage: {@code DeckUniformityTestClient [decks]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.ByteDeck
+ */
+public class DeckUniformityTestClient
+{
+    private static final int POSITIONS = 5;
+    private static final int PAIRS = Cards.DECK_SIZE * (Cards.DECK_SIZE - 1);
+
+    /**
+     * Normal quantile for the upper 0.001 tail, used to approximate the
+     * chi-squared critical values.
+     */
+    private static final double Z_999 = 3.090;
+
+    public static void main(final String[] args)
+    {
+        final int deckCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        boolean passed = true;
+        passed &= test("DeckImpl shuffled", DeckImpl::createShuffledDeck, deckCount);
+        passed &= test("ByteDeck shuffled", ByteDeck::createShuffledDeck, deckCount);
+        passed &= test("ByteDeck lazy", ByteDeck::createLazyShuffledDeck, deckCount);
+        for (final ShuffleAlgorithm algorithm : ShuffleAlgorithm.values())
+        {
+            passed &= test(
+                "ByteDeck lazy " + algorithm,
+                () -> ByteDeck.createLazyShuffledDeck(algorithm, algorithm.newSeed()),
+                deckCount
+            );
+        }
+        System.out.println("OVERALL UNIFORMITY RESULT: " + (passed ? "PASSED" : "FAILED"));
+        if (!passed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Deals the first cards from the specified number of decks and tests the
+     * counts.
+     *
+     * @return true if all tests passed.
+     */
+    private static boolean test(final String name, final Supplier<Deck> decks, final int deckCount)
+    {
+        final long[][] byPosition = new long[POSITIONS][Cards.DECK_SIZE];
+        final long[] byPair = new long[Cards.DECK_SIZE * Cards.DECK_SIZE];
+        for (int d = 0; d < deckCount; d++)
+        {
+            final Deck deck = decks.get();
+            int first = 0;
+            for (int p = 0; p < POSITIONS; p++)
+            {
+                final int index = Cards.indexOf(deck.removeNextCard());
+                byPosition[p][index]++;
+                if (p == 0)
+                {
+                    first = index;
+                }
+                else if (p == 1)
+                {
+                    byPair[first * Cards.DECK_SIZE + index]++;
+                }
+            }
+        }
+
+        System.out.println(name);
+        boolean passed = true;
+        final double expected = (double) deckCount / Cards.DECK_SIZE;
+        for (int p = 0; p < POSITIONS; p++)
+        {
+            passed &= report("card at position " + (p + 1), chiSquared(byPosition[p], expected, false), Cards.DECK_SIZE - 1);
+        }
+        passed &= report("first two cards", chiSquared(byPair, (double) deckCount / PAIRS, true), PAIRS - 1);
+        return passed;
+    }
+
+    /**
+     * Calculates the chi-squared statistic of the counts against the expected
+     * count. Zero counts are included, as a card that never appears is just
+     * the kind of bias being tested for. For the counts of pairs, the pairs
+     * of the same card (index {@code first * 52 + first}) can never be dealt
+     * and are excluded.
+     *
+     * @param excludeSameCardPairs true if the counts are of pairs of cards.
+     */
+    private static double chiSquared(final long[] counts, final double expected, final boolean excludeSameCardPairs)
+    {
+        double statistic = 0;
+        for (int index = 0; index < counts.length; index++)
+        {
+            if (excludeSameCardPairs && index % (Cards.DECK_SIZE + 1) == 0)
+            {
+                continue;
+            }
+            final double difference = counts[index] - expected;
+            statistic += difference * difference / expected;
+        }
+        return statistic;
+    }
+
+    /**
+     * Prints the result of a test against the approximate critical value.
+     *
+     * @return true if the test passed.
+     */
+    private static boolean report(final String test, final double statistic, final int degreesOfFreedom)
+    {
+        final double critical = criticalValue(degreesOfFreedom);
+        final boolean passed = statistic <= critical;
+        System.out.printf(
+            "  %-20s chi2 %10.1f  critical %8.1f  %s%n", test, statistic, critical, passed ? "PASS" : "FAIL"
+        );
+        return passed;
+    }
+
+    /**
+     * Approximates the upper 0.001 critical value of the chi-squared
+     * distribution with the Wilson-Hilferty transformation.
+     */
+    private static double criticalValue(final int degreesOfFreedom)
+    {
+        final double k = degreesOfFreedom;
+        final double term = 1 - 2 / (9 * k) + Z_999 * Math.sqrt(2 / (9 * k));
+        return k * term * term * term;
+    }
+
+}
@@ -0,0 +1,83 @@
+package client;
+
+import java.util.concurrent.ForkJoinPool;
+
+import model.card.Suit;
+import model.sim.BetStatistics;
+import model.sim.MonteCarloSimulator;
+import model.sim.SimulationResult;
+
+/**
+ * A simple client which runs the {@link MonteCarloSimulator} with the same
+ * seed on pools of 1 to 64 threads, and checks that every pool gives exactly
+ * the same count of wins, draws and losses for every bet. The number of
+ * rounds simulated per second with each pool is printed.
+ *
+ * <p>Each pool is warmed up with a short run before it is timed.</p>
+ *
+ * <p>Usage: {@code DeterministicSimulationTestClient [rounds] [seed]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.MonteCarloSimulator
+ */
+public class DeterministicSimulationTestClient
+{
+    private static final int[] THREAD_COUNTS = { 1, 2, 8, 64 };
+    private static final long WARMUP_ROUNDS = 1_000_000;
+
+    public static void main(final String[] args)
+    {
+        final long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        System.out.printf("Simulating %d rounds with seed %d on %d processors%n",
+            rounds, seed, Runtime.getRuntime().availableProcessors());
+
+        boolean passed = true;
+        SimulationResult expected = null;
+        for (final int threads : THREAD_COUNTS)
+        {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            try
+            {
+                final MonteCarloSimulator simulator = new MonteCarloSimulator(pool);
+                simulator.simulate(WARMUP_ROUNDS, seed);
+                final SimulationResult result = simulator.simulate(rounds, seed);
+                final boolean same = expected == null || sameCounts(expected, result);
+                System.out.printf("%3d threads: %.0f rounds/s, score bet %s: %s%n", threads,
+                    result.getRoundsPerSecond(), counts(result.getScoreBet()), same ? "PASSED" : "FAILED");
+                passed &= same;
+                if (expected == null)
+                {
+                    expected = result;
+                }
+            }
+            finally
+            {
+                pool.shutdown();
+            }
+        }
+        System.out.printf("%nOVERALL RESULT: %s%n", passed ? "PASSED" : "FAILED");
+    }
+
+    /**
+     * @return true if every bet has the same counts in both results.
+     */
+    private static boolean sameCounts(final SimulationResult expected, final SimulationResult actual)
+    {
+        boolean same = counts(expected.getScoreBet()).equals(counts(actual.getScoreBet()));
+        for (final Suit suit : Suit.values())
+        {
+            same &= counts(expected.getSuitBet(suit)).equals(counts(actual.getSuitBet(suit)));
+        }
+        return same;
+    }
+
+    /**
+     * @return the counts of a bet's results as a string.
+     */
+    private static String counts(final BetStatistics statistics)
+    {
+        return String.format("%d/%d/%d", statistics.getWins(), statistics.getDraws(), statistics.getLosses());
+    }
+}
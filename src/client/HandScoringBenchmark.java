@@ -0,0 +1,239 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+import java.util.function.Function;
+
+import model.card.BitmaskHand;
+import model.card.ByteDeck;
+import model.card.Card;
+import model.card.Deck;
+import model.card.Hand;
+import model.card.HandImpl;
+import model.card.Suit;
+
+/**
+ * A simple benchmark which compares {@link HandImpl}, which keeps a running
+ * score and suit counts, and the compact {@link BitmaskHand} with the
+ * original implementation which walks the cards on every read.
+ *
+ * <p>Each iteration deals a hand until it would bust, then reads the score
+ * and every suit count as settling a score bet and a suit bet on it would.
+ * Each configuration is warmed up before it is timed. Results are in
+ * nanoseconds per hand.</p>
+ *
+ * <p>The approximate heap used to keep each kind of hand is also measured,
+ * by copying dealt hands into a large array.</p>
+ *
+ * <p>Usage: {@code HandScoringBenchmark [hands]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.HandImpl
+ */
+public class HandScoringBenchmark
+{
+    private static final int WARMUP_RUNS = 3;
+    private static final int READS_PER_HAND = 10;
+    private static final int DECKS = 1024;
+    private static final int RETAINED_HANDS = 1_000_000;
+
+    public static void main(final String[] args)
+    {
+        final int handCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        /*
+         * Deal from the same prepared cards for both hands, so only the hand
+         * differs.
+         */
+        final Card[][] decks = new Card[DECKS][];
+        for (int d = 0; d < DECKS; d++)
+        {
+            final Deck deck = ByteDeck.createShuffledDeck();
+            decks[d] = new Card[deck.cardsInDeck()];
+            for (int c = 0; c < decks[d].length; c++)
+            {
+                decks[d][c] = deck.removeNextCard();
+            }
+        }
+
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_RUNS; i++)
+        {
+            checksum += play(new ListHand(), decks, handCount);
+            checksum += play(new HandImpl(), decks, handCount);
+            checksum += play(new BitmaskHand(), decks, handCount);
+        }
+        final long listStart = System.nanoTime();
+        checksum += play(new ListHand(), decks, handCount);
+        final double listNanos = (double) (System.nanoTime() - listStart) / handCount;
+        final long runningStart = System.nanoTime();
+        checksum += play(new HandImpl(), decks, handCount);
+        final double runningNanos = (double) (System.nanoTime() - runningStart) / handCount;
+        final long bitmaskStart = System.nanoTime();
+        checksum += play(new BitmaskHand(), decks, handCount);
+        final double bitmaskNanos = (double) (System.nanoTime() - bitmaskStart) / handCount;
+
+        final HandImpl dealt = new HandImpl();
+        final double implBytes = retainedBytes(decks, dealt, cards -> {
+            final Hand copy = new HandImpl();
+            for (final Card card : cards.getCards())
+            {
+                copy.dealCard(card);
+            }
+            return copy;
+        });
+        final double bitmaskBytes = retainedBytes(decks, dealt, BitmaskHand::copyOf);
+
+        System.out.printf("%20s %15s %15s%n", "hand", "ns per hand", "bytes per hand");
+        System.out.printf("%20s %15.1f %15s%n", "walk cards", listNanos, "-");
+        System.out.printf("%20s %15.1f %15.0f%n", "running counts", runningNanos, implBytes);
+        System.out.printf("%20s %15.1f %15.0f%n", "bitmask", bitmaskNanos, bitmaskBytes);
+        if (checksum == 0)
+        {
+            System.out.println("No hands scored");
+        }
+    }
+
+    /**
+     * Deals and settles the specified number of hands, reusing one hand.
+     *
+     * @return a checksum of the values read, so the work cannot be optimised
+     * away.
+     */
+    private static long play(final Hand hand, final Card[][] decks, final int handCount)
+    {
+        final Suit[] suits = Suit.values();
+        long checksum = 0;
+        for (int h = 0; h < handCount; h++)
+        {
+            final Card[] cards = decks[h % DECKS];
+            hand.reset();
+            int c = 0;
+            while (hand.dealCard(cards[c]))
+            {
+                c++;
+            }
+            for (int r = 0; r < READS_PER_HAND; r++)
+            {
+                checksum += hand.getScore();
+                checksum += hand.getSuitCount(suits[r % suits.length]);
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Keeps copies of many dealt hands and measures the heap they use.
+     *
+     * @return the approximate number of bytes used by each hand kept.
+     */
+    private static double retainedBytes(
+        final Card[][] decks, final Hand dealt, final Function<Hand,Hand> copier)
+    {
+        final Hand[] retained = new Hand[RETAINED_HANDS];
+        final long before = usedHeap();
+        for (int h = 0; h < RETAINED_HANDS; h++)
+        {
+            final Card[] cards = decks[h % DECKS];
+            dealt.reset();
+            int c = 0;
+            while (dealt.dealCard(cards[c]))
+            {
+                c++;
+            }
+            retained[h] = copier.apply(dealt);
+        }
+        final long after = usedHeap();
+        if (retained[RETAINED_HANDS - 1].isEmpty())
+        {
+            System.out.println("Empty hand retained");
+        }
+        return (double) (after - before) / RETAINED_HANDS;
+    }
+
+    /**
+     * @return the heap in use after a garbage collection.
+     */
+    private static long usedHeap()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The original hand implementation, which walks the cards to calculate
+     * the score and suit counts.
+     */
+    private static final class ListHand implements Hand
+    {
+        private final Collection<Card> cards = new ArrayList<>();
+
+        @Override
+        public boolean dealCard(final Card card)
+        {
+            if (getScore() + card.getValue() <= BUST_SCORE)
+            {
+                cards.add(card);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return cards.isEmpty();
+        }
+
+        @Override
+        public int getNumberOfCards()
+        {
+            return cards.size();
+        }
+
+        @Override
+        public int getScore()
+        {
+            int result = 0;
+            for (final Card card : cards)
+            {
+                result += card.getRank().getRankValue();
+            }
+            return result;
+        }
+
+        @Override
+        public int getSuitCount(final Suit suit)
+        {
+            int result = 0;
+            for (final Card card : cards)
+            {
+                if (card.getSuit().equals(suit))
+                {
+                    result++;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Collection<Card> getCards()
+        {
+            return Collections.unmodifiableCollection(cards);
+        }
+
+        @Override
+        public void reset()
+        {
+            cards.clear();
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import model.BetRequest;
+import model.Player;
+import model.PlayerImpl;
+import model.TableEngine;
+import model.bet.BetResult;
+import model.card.Card;
+import model.card.Deck;
+import model.card.Hand;
+import model.card.Suit;
+import view.GameEventType;
+import view.SelectiveGameCallback;
+
+/**
+ * A test client which plays rounds at a single tournament table with tens of
+ * thousands of players, and reports the time taken to settle each round.
+ *
+ * <p>Bets are placed and players dealt to with the batch operations. A house
+ * bust callback checks that every bet has been settled before it is called,
+ * as the specification requires, even when settlement runs in parallel.</p>
+ *
+ * <p>Usage: {@code LargeTableTestClient [players] [rounds]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.SettlementEngine
+ */
+public class LargeTableTestClient
+{
+    private static final int BET_AMOUNT = 10;
+
+    public static void main(final String[] args)
+    {
+        final int playerCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        final int roundCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        final TableEngine engine = new TableEngine(true);
+        final SettledCheck check = new SettledCheck(engine);
+        engine.registerCallback(check);
+
+        final List<String> playerIds = new ArrayList<>(playerCount);
+        final List<BetRequest> bets = new ArrayList<>(playerCount);
+        for (int p = 0; p < playerCount; p++)
+        {
+            final String playerId = "P" + p;
+            engine.addPlayer(new PlayerImpl(playerId, "Player " + p, Integer.MAX_VALUE / 2));
+            playerIds.add(playerId);
+            bets.add(p % 2 == 0
+                ? BetRequest.scoreBet(playerId, BET_AMOUNT)
+                : BetRequest.suitBet(playerId, BET_AMOUNT, Suit.values()[p % 4]));
+        }
+
+        for (int r = 0; r < roundCount; r++)
+        {
+            engine.placeBets(bets);
+            engine.dealPlayers(playerIds, 0);
+            engine.dealHouse(0);
+            System.out.printf(
+                "Round %d: settled %d players in %.2f ms%n",
+                r + 1, playerCount, engine.getLastSettlementNanos() / 1e6
+            );
+            engine.resetAllBetsAndHands();
+        }
+        System.out.printf(
+            "Mean settlement %.2f ms, unsettled bets seen by house bust: %d%n",
+            engine.getAverageSettlementNanos() / 1e6, check.unsettled
+        );
+    }
+
+    /**
+     * Counts any bet which is still undetermined when the house bust callback
+     * is called.
+     */
+    private static final class SettledCheck implements SelectiveGameCallback
+    {
+        private final TableEngine engine;
+        private long unsettled;
+
+        private SettledCheck(final TableEngine engine)
+        {
+            this.engine = engine;
+        }
+
+        @Override
+        public Set<GameEventType> getSubscribedEvents()
+        {
+            return EnumSet.of(GameEventType.HOUSE_BUST);
+        }
+
+        @Override
+        public void houseBust(final Hand houseHand, final Card card)
+        {
+            for (final Player player : engine.getAllPlayers())
+            {
+                if (player.getBet().getResult() == BetResult.UNDETERMINED)
+                {
+                    unsettled++;
+                }
+            }
+        }
+
+        @Override
+        public void addPlayer(final Player player)
+        {
+        }
+
+        @Override
+        public void removePlayer(final Player player)
+        {
+        }
+
+        @Override
+        public void betUpdated(final Player player)
+        {
+        }
+
+        @Override
+        public void newDeck(final Deck deck)
+        {
+        }
+
+        @Override
+        public void playerCard(final Player player, final Card card)
+        {
+        }
+
+        @Override
+        public void playerBust(final Player player, final Card card)
+        {
+        }
+
+        @Override
+        public void houseCard(final Hand houseHand, final Card card)
+        {
+        }
+    }
+
+}
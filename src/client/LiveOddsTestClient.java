@@ -0,0 +1,245 @@
+package client;
+
+import model.Player;
+import model.PlayerImpl;
+import model.TableEngine;
+import model.card.Card;
+import model.card.Deck;
+import model.card.DeckComposition;
+import model.card.Hand;
+import model.card.ShoeDeck;
+import model.card.ShuffleAlgorithm;
+import view.GameCallback;
+import view.OddsGameCallback;
+
+/**
+ * A simple client which checks the live bust probabilities pushed to an
+ * {@link OddsGameCallback} while players are dealt to from a shoe, then
+ * times rounds with and without an odds callback registered.
+ *
+ * <p>The check keeps its own count of the cards remaining in the shoe from
+ * the card events, and the probability pushed for each card must be exactly
+ * the one worked out from that count. An odds callback registered for a
+ * single seat must receive the odds for each of that player's cards.</p>
+ *
+ * <p>Usage: {@code LiveOddsTestClient [rounds] [seed]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.OddsGameCallback
+ */
+public class LiveOddsTestClient
+{
+    private static final int PLAYER_COUNT = 4;
+    private static final int BET_AMOUNT = 1;
+    private static final int WARMUP_ROUNDS = 20_000;
+
+    public static void main(final String[] args)
+    {
+        final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        final int deckCount = ShoeDeck.DEFAULT_DECK_COUNT;
+
+        final ShoeDeck shoe = new ShoeDeck(deckCount, deckCount * 13, ShuffleAlgorithm.SPLITTABLE_RANDOM, seed);
+        final TableEngine engine = createTable(shoe);
+        final OddsCheck check = new OddsCheck(shoe.getComposition(), deckCount);
+        final SeatCount seat = new SeatCount();
+        engine.registerCallback(check);
+        engine.registerPlayerCallback("P0", seat);
+        playRounds(engine, rounds);
+
+        final boolean passed = check.checked > 0 && check.mismatches == 0 && seat.odds == seat.cards;
+        System.out.printf("Seed %d: %d odds checked, %d mismatches, seat P0 got odds for %d of %d cards%n",
+            seed, check.checked, check.mismatches, seat.odds, seat.cards);
+
+        final double plainNanos = timeRounds(new NullCallback(), rounds, seed);
+        final double oddsNanos = timeRounds(new NullOddsCallback(), rounds, seed);
+        System.out.printf("Round of %d players: %.0f ns without odds, %.0f ns with odds (%+.1f%%)%n",
+            PLAYER_COUNT, plainNanos, oddsNanos, 100 * (oddsNanos / plainNanos - 1));
+        System.out.printf("%nOVERALL RESULT: %s%n", passed ? "PASSED" : "FAILED");
+    }
+
+    /**
+     * @return a sequential table dealing from the shoe, with players seated.
+     */
+    private static TableEngine createTable(final ShoeDeck shoe)
+    {
+        final TableEngine engine = new TableEngine(false, shoe);
+        for (int p = 0; p < PLAYER_COUNT; p++)
+        {
+            engine.addPlayer(new PlayerImpl("P" + p, "Player " + p, Integer.MAX_VALUE / 2));
+        }
+        return engine;
+    }
+
+    /**
+     * Plays the specified number of rounds with no delays.
+     */
+    private static void playRounds(final TableEngine engine, final int rounds)
+    {
+        for (int r = 0; r < rounds; r++)
+        {
+            for (int p = 0; p < PLAYER_COUNT; p++)
+            {
+                engine.placeBet("P" + p, BET_AMOUNT);
+                engine.dealPlayer("P" + p, 0);
+            }
+            engine.dealHouse(0);
+            engine.resetAllBetsAndHands();
+        }
+    }
+
+    /**
+     * Times rounds on a new table with the specified callback registered,
+     * after warming up.
+     *
+     * @return the mean time per round in ns.
+     */
+    private static double timeRounds(final GameCallback callback, final int rounds, final long seed)
+    {
+        final int deckCount = ShoeDeck.DEFAULT_DECK_COUNT;
+        final TableEngine engine = createTable(
+            new ShoeDeck(deckCount, deckCount * 13, ShuffleAlgorithm.SPLITTABLE_RANDOM, seed));
+        engine.registerCallback(callback);
+        playRounds(engine, WARMUP_ROUNDS);
+        final long start = System.nanoTime();
+        playRounds(engine, rounds);
+        return (double) (System.nanoTime() - start) / rounds;
+    }
+
+    /**
+     * A callback which ignores every event.
+     */
+    private static class NullCallback implements GameCallback
+    {
+        @Override
+        public void addPlayer(final Player player)
+        {
+        }
+
+        @Override
+        public void removePlayer(final Player player)
+        {
+        }
+
+        @Override
+        public void betUpdated(final Player player)
+        {
+        }
+
+        @Override
+        public void newDeck(final Deck deck)
+        {
+        }
+
+        @Override
+        public void playerCard(final Player player, final Card card)
+        {
+        }
+
+        @Override
+        public void playerBust(final Player player, final Card card)
+        {
+        }
+
+        @Override
+        public void houseCard(final Hand houseHand, final Card card)
+        {
+        }
+
+        @Override
+        public void houseBust(final Hand houseHand, final Card card)
+        {
+        }
+    }
+
+    /**
+     * An odds callback which ignores every event.
+     */
+    private static class NullOddsCallback extends NullCallback implements OddsGameCallback
+    {
+        @Override
+        public void nextCardOdds(final Player player, final double bustProbability)
+        {
+        }
+    }
+
+    /**
+     * Counts the cards left in the shoe from the card events, and checks each
+     * bust probability against the count.
+     */
+    private static final class OddsCheck extends NullCallback implements OddsGameCallback
+    {
+        private final int deckCount;
+        private DeckComposition remaining;
+        private long checked;
+        private long mismatches;
+
+        private OddsCheck(final DeckComposition remaining, final int deckCount)
+        {
+            this.remaining = remaining;
+            this.deckCount = deckCount;
+        }
+
+        @Override
+        public void newDeck(final Deck deck)
+        {
+            remaining = DeckComposition.ofDecks(deckCount);
+        }
+
+        @Override
+        public void playerCard(final Player player, final Card card)
+        {
+            remaining.remove(card);
+        }
+
+        @Override
+        public void playerBust(final Player player, final Card card)
+        {
+            remaining.remove(card);
+        }
+
+        @Override
+        public void houseCard(final Hand houseHand, final Card card)
+        {
+            remaining.remove(card);
+        }
+
+        @Override
+        public void houseBust(final Hand houseHand, final Card card)
+        {
+            remaining.remove(card);
+        }
+
+        @Override
+        public void nextCardOdds(final Player player, final double bustProbability)
+        {
+            checked++;
+            if (bustProbability != remaining.getBustProbability(player.getHand().getScore()))
+            {
+                mismatches++;
+            }
+        }
+    }
+
+    /**
+     * Counts the cards and odds received for a single seat.
+     */
+    private static final class SeatCount extends NullCallback implements OddsGameCallback
+    {
+        private long cards;
+        private long odds;
+
+        @Override
+        public void playerCard(final Player player, final Card card)
+        {
+            cards++;
+        }
+
+        @Override
+        public void nextCardOdds(final Player player, final double bustProbability)
+        {
+            odds++;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package client;
+
+import java.util.concurrent.ForkJoinPool;
+
+import model.sim.MonteCarloSimulator;
+import model.sim.SimulationResult;
+
+/**
+ * A simple client which runs the headless {@link MonteCarloSimulator} and
+ * prints the house edge, variance and 95% confidence interval of each bet,
+ * and the number of rounds simulated per second.
+ *
+ * <p>A short run is made first to warm up the simulator.</p>
+ *
+ * <p>Usage: {@code MonteCarloTestClient [rounds] [threads] [seed]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.MonteCarloSimulator
+ */
+public class MonteCarloTestClient
+{
+    private static final long WARMUP_ROUNDS = 2_000_000;
+
+    public static void main(final String[] args)
+    {
+        final long rounds = args.length > 0 ? Long.parseLong(args[0]) : 20_000_000L;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try
+        {
+            final MonteCarloSimulator simulator = new MonteCarloSimulator(pool);
+            simulator.simulate(WARMUP_ROUNDS, seed);
+            final SimulationResult result = simulator.simulate(rounds, seed);
+            System.out.printf("Threads: %d, seed: %d%n", threads, seed);
+            System.out.println(result);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+}
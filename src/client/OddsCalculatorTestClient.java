@@ -0,0 +1,247 @@
+package client;
+
+import java.util.SplittableRandom;
+
+import model.Player;
+import model.PlayerImpl;
+import model.bet.Bet;
+import model.bet.BetResult;
+import model.bet.ScoreBetImpl;
+import model.bet.SuitBetImpl;
+import model.card.Card;
+import model.card.Cards;
+import model.card.DeckComposition;
+import model.card.Hand;
+import model.card.HandImpl;
+import model.card.Rank;
+import model.card.ShoeDeck;
+import model.card.ShuffleAlgorithm;
+import model.card.Suit;
+import model.odds.OddsCalculator;
+import model.odds.RoundOdds;
+import model.sim.BetStatistics;
+import model.sim.MonteCarloSimulator;
+import model.sim.SimulationResult;
+
+/**
+ * A simple client which checks the exact odds of {@link OddsCalculator}
+ * against the {@link MonteCarloSimulator} for a full deck, then times the
+ * calculation for a shoe part way through being dealt, with the player part
+ * way through their hand. The calculator is warmed up before it is timed.
+ *
+ * <p>The exact win and draw probabilities must lie within the simulator's
+ * 99.9% confidence interval (the 95% interval is widened, as there are
+ * several checks). Suit bets pay out at their multiplier, so a win
+ * probability is checked against the mean outcome of the bet.</p>
+ *
+ * <p>Each part dealt shoe, with its partial player hand, is also checked by
+ * playing rounds from exactly that composition and hand with the real bets.
+ * The exact probability of each result must lie within the 99.99% interval
+ * of the observed frequency, as there are many more of these checks.</p>
+ *
+ * <p>Usage: {@code OddsCalculatorTestClient [rounds] [seed]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.odds.OddsCalculator
+ */
+public class OddsCalculatorTestClient
+{
+    private static final double Z_999 = 3.29;
+    private static final double Z_9999 = 3.89;
+    private static final int SHOE_CHECK_ROUNDS = 200_000;
+    private static final int SHOE_QUERIES = 5;
+    private static final int WARMUP_QUERIES = 12;
+
+    public static void main(final String[] args)
+    {
+        final long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        boolean passed = true;
+
+        final OddsCalculator calculator = new OddsCalculator();
+        long start = System.nanoTime();
+        RoundOdds odds = calculator.calculate(DeckComposition.fullDeck());
+        System.out.printf("Full deck odds in %.1f ms (first call)%n", (System.nanoTime() - start) / 1e6);
+        for (int i = 0; i < WARMUP_QUERIES; i++)
+        {
+            calculator.calculate(DeckComposition.ofDecks(1 + i % ShoeDeck.DEFAULT_DECK_COUNT));
+        }
+        start = System.nanoTime();
+        odds = calculator.calculate(DeckComposition.fullDeck());
+        System.out.printf("Full deck odds in %.1f ms:%n%s%n", (System.nanoTime() - start) / 1e6, odds);
+        start = System.nanoTime();
+        calculator.calculate(DeckComposition.ofDecks(ShoeDeck.DEFAULT_DECK_COUNT));
+        System.out.printf("Full shoe odds in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        final SimulationResult result = new MonteCarloSimulator().simulate(rounds, seed);
+        System.out.printf("%nSimulated %d rounds with seed %d%n", rounds, seed);
+        passed &= check("Score bet mean outcome", meanOutcome(odds.getScoreWin(), odds.getScoreLoss(),
+            result.getScoreBet().getMultiplier()), result.getScoreBet());
+        for (final Suit suit : Suit.values())
+        {
+            final BetStatistics statistics = result.getSuitBet(suit);
+            passed &= check("Suit bet on " + suit + " mean outcome", meanOutcome(odds.getSuitWin(suit),
+                odds.getSuitLoss(suit), statistics.getMultiplier()), statistics);
+        }
+
+        final ShoeDeck shoe = new ShoeDeck(ShoeDeck.DEFAULT_DECK_COUNT, 0, ShuffleAlgorithm.SPLITTABLE_RANDOM, seed);
+        for (int query = 0; query < SHOE_QUERIES; query++)
+        {
+            // Deal a few rounds' worth of cards, then a partial player hand
+            for (int i = 0; i < 37; i++)
+            {
+                shoe.removeNextCard();
+            }
+            final Hand hand = new HandImpl();
+            hand.dealCard(shoe.removeNextCard());
+            hand.dealCard(shoe.removeNextCard());
+            final DeckComposition remaining = shoe.getComposition();
+
+            start = System.nanoTime();
+            final RoundOdds shoeOdds = calculator.calculate(remaining, hand);
+            final double elapsed = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%n%s%nPlayer hand %s%n%s%nCalculated in %.1f ms (memo %d)%n",
+                remaining, describe(hand), shoeOdds, elapsed, calculator.getMemoSize());
+            passed &= checkShoe(remaining, hand, shoeOdds, new SplittableRandom(seed + query));
+        }
+        System.out.printf("%nOVERALL RESULT: %s%n", passed ? "PASSED" : "FAILED");
+        if (!passed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays rounds from the composition, continuing the player's partial
+     * hand, and checks the exact odds against the frequency of each result.
+     *
+     * @return true if every exact probability is within the interval.
+     */
+    private static boolean checkShoe(
+        final DeckComposition remaining, final Hand hand, final RoundOdds odds, final SplittableRandom random)
+    {
+        final byte[] codes = new byte[remaining.size()];
+        int size = 0;
+        for (final Suit suit : Suit.values())
+        {
+            for (final Rank rank : Rank.values())
+            {
+                for (int i = 0; i < remaining.getCount(suit, rank); i++)
+                {
+                    codes[size++] = (byte) Cards.indexOf(suit, rank);
+                }
+            }
+        }
+
+        final Player player = new PlayerImpl("check", "Check", Integer.MAX_VALUE);
+        final Hand house = new HandImpl();
+        final Bet scoreBet = new ScoreBetImpl(player, 1);
+        final Bet[] suitBets = new Bet[Suit.values().length];
+        for (final Suit suit : Suit.values())
+        {
+            suitBets[suit.ordinal()] = new SuitBetImpl(player, 1, suit);
+        }
+        long scoreWins = 0;
+        long scoreDraws = 0;
+        final long[] suitWins = new long[suitBets.length];
+        for (int round = 0; round < SHOE_CHECK_ROUNDS; round++)
+        {
+            final Hand playerHand = player.getHand();
+            playerHand.reset();
+            for (final Card card : hand.getCards())
+            {
+                playerHand.dealCard(card);
+            }
+            house.reset();
+            final int cursor = dealUntilBust(playerHand, codes, codes.length, random);
+            dealUntilBust(house, codes, cursor, random);
+
+            final BetResult scoreResult = scoreBet.finaliseBet(house);
+            scoreWins += scoreResult == BetResult.PLAYER_WIN ? 1 : 0;
+            scoreDraws += scoreResult == BetResult.DRAW ? 1 : 0;
+            for (int i = 0; i < suitBets.length; i++)
+            {
+                suitWins[i] += suitBets[i].finaliseBet(house) == BetResult.PLAYER_WIN ? 1 : 0;
+            }
+        }
+
+        double largest = Math.max(deviation(odds.getScoreWin(), scoreWins), deviation(odds.getScoreDraw(), scoreDraws));
+        for (final Suit suit : Suit.values())
+        {
+            largest = Math.max(largest, deviation(odds.getSuitWin(suit), suitWins[suit.ordinal()]));
+        }
+        final boolean passed = largest <= Z_9999;
+        System.out.printf("Checked against %d rounds from this shoe, largest deviation %.2f standard errors: %s%n",
+            SHOE_CHECK_ROUNDS, largest, passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Deals cards picked at random from the first codes of the array into the
+     * hand until one would bust it, moving each card dealt past the end of
+     * the remaining codes.
+     *
+     * @return the number of codes remaining.
+     */
+    private static int dealUntilBust(final Hand hand, final byte[] codes, final int length, final SplittableRandom random)
+    {
+        int cursor = length;
+        boolean dealBust = false;
+        while (!dealBust)
+        {
+            final int top = cursor - 1;
+            final int pick = random.nextInt(cursor);
+            final byte swap = codes[top];
+            codes[top] = codes[pick];
+            codes[pick] = swap;
+            cursor = top;
+            dealBust = !hand.dealCard(Cards.of(codes[top]));
+        }
+        return cursor;
+    }
+
+    /**
+     * @return how many standard errors the observed frequency of a result is
+     * from its exact probability.
+     */
+    private static double deviation(final double exact, final long observed)
+    {
+        final double standardError = Math.sqrt(exact * (1 - exact) / SHOE_CHECK_ROUNDS);
+        final double difference = Math.abs((double) observed / SHOE_CHECK_ROUNDS - exact);
+        return standardError == 0 ? (difference == 0 ? 0 : Double.POSITIVE_INFINITY) : difference / standardError;
+    }
+
+    /**
+     * @return the mean outcome of a unit bet with the multiplier.
+     */
+    private static double meanOutcome(final double win, final double loss, final int multiplier)
+    {
+        return win * multiplier - loss;
+    }
+
+    /**
+     * Checks an exact mean outcome against the simulated one.
+     */
+    private static boolean check(final String name, final double exact, final BetStatistics simulated)
+    {
+        final double halfWidth = simulated.getConfidenceHalfWidth() * Z_999 / BetStatistics.Z_95;
+        final boolean passed = Math.abs(exact - simulated.getMeanOutcome()) <= halfWidth;
+        System.out.printf("%s: exact=%.6f, simulated=%.6f +/- %.6f: %s%n",
+            name, exact, simulated.getMeanOutcome(), halfWidth, passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * @return the cards of the hand as a string.
+     */
+    private static String describe(final Hand hand)
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (final Card card : hand.getCards())
+        {
+            builder.append(card).append(' ');
+        }
+        return builder.append("(score ").append(hand.getScore()).append(')').toString();
+    }
+}
@@ -0,0 +1,125 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import model.card.DeckComposition;
+import model.card.Suit;
+import model.odds.OddsCalculator;
+import model.odds.RoundOdds;
+import model.sim.BetStatistics;
+import model.sim.MonteCarloSimulator;
+import model.sim.PayoutAnalyzer;
+import model.sim.PayoutMultipliers;
+import model.sim.SimulationResult;
+
+/**
+ * A simple client which prices a grid of candidate payout multipliers with
+ * the {@link PayoutAnalyzer} from a single simulation, and prints the house
+ * edge of each bet for a range of multipliers and the multipliers at which
+ * each bet breaks even.
+ *
+ * <p>The mean outcome of every bet with every candidate must lie within the
+ * 99.9% confidence interval of its exact value from the
+ * {@link OddsCalculator}, and the candidate the game pays must give exactly
+ * the results of a plain simulation of the same rounds.</p>
+ *
+ * <p>Usage: {@code PayoutAnalyzerTestClient [rounds] [seed]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.PayoutAnalyzer
+ */
+public class PayoutAnalyzerTestClient
+{
+    private static final double Z_999 = 3.29;
+    private static final int MAX_MULTIPLIER = 20;
+    private static final int PRINTED_MULTIPLIERS = 8;
+
+    public static void main(final String[] args)
+    {
+        final long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+
+        final List<PayoutMultipliers> candidates = new ArrayList<>();
+        for (int score = 1; score <= MAX_MULTIPLIER; score++)
+        {
+            for (int suit = 1; suit <= MAX_MULTIPLIER; suit++)
+            {
+                candidates.add(new PayoutMultipliers(score, suit));
+            }
+        }
+
+        final MonteCarloSimulator simulator = new MonteCarloSimulator();
+        long start = System.nanoTime();
+        final SimulationResult simulated = simulator.simulate(rounds, seed);
+        final double simulateMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        final Map<PayoutMultipliers,SimulationResult> priced = PayoutAnalyzer.price(simulated, candidates);
+        final double priceMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("Simulated %d rounds with seed %d in %.1f ms, priced %d candidates in %.3f ms%n",
+            rounds, seed, simulateMillis, priced.size(), priceMillis);
+
+        final PayoutMultipliers current = new PayoutMultipliers(
+            simulated.getScoreBet().getMultiplier(), simulated.getSuitBet(Suit.HEARTS).getMultiplier());
+        final SimulationResult replayed = new PayoutAnalyzer(simulator)
+            .analyse(rounds, seed, Collections.singletonList(current)).get(current);
+        boolean passed = sameOutcomes(simulated, replayed);
+        System.out.printf("Game multipliers (%s) match a plain simulation: %s%n", current, passed ? "PASSED" : "FAILED");
+
+        final RoundOdds odds = new OddsCalculator().calculate(DeckComposition.fullDeck());
+        long failures = 0;
+        for (final SimulationResult result : priced.values())
+        {
+            failures += withinInterval(odds.getScoreWin(), odds.getScoreLoss(), result.getScoreBet()) ? 0 : 1;
+            for (final Suit suit : Suit.values())
+            {
+                failures += withinInterval(odds.getSuitWin(suit), odds.getSuitLoss(suit), result.getSuitBet(suit)) ? 0 : 1;
+            }
+        }
+        System.out.printf("Candidates outside the exact 99.9%% interval: %d: %s%n",
+            failures, failures == 0 ? "PASSED" : "FAILED");
+        passed &= failures == 0;
+
+        System.out.printf("%n%10s %15s %15s%n", "multiplier", "score edge", "hearts edge");
+        for (int multiplier = 1; multiplier <= PRINTED_MULTIPLIERS; multiplier++)
+        {
+            final SimulationResult result = priced.get(new PayoutMultipliers(multiplier, multiplier));
+            System.out.printf("%10d %15.6f %15.6f%n", multiplier,
+                result.getScoreBet().getHouseEdge(), result.getSuitBet(Suit.HEARTS).getHouseEdge());
+        }
+        System.out.printf("%nBreak even multiplier: score bet %.4f", simulated.getScoreBet().getBreakEvenMultiplier());
+        for (final Suit suit : Suit.values())
+        {
+            System.out.printf(", %s %.4f", suit, simulated.getSuitBet(suit).getBreakEvenMultiplier());
+        }
+        System.out.printf("%n%nOVERALL RESULT: %s%n", passed ? "PASSED" : "FAILED");
+    }
+
+    /**
+     * @return true if the mean outcome of every bet is the same in both
+     * results.
+     */
+    private static boolean sameOutcomes(final SimulationResult expected, final SimulationResult actual)
+    {
+        boolean same = expected.getScoreBet().getMeanOutcome() == actual.getScoreBet().getMeanOutcome();
+        for (final Suit suit : Suit.values())
+        {
+            same &= expected.getSuitBet(suit).getMeanOutcome() == actual.getSuitBet(suit).getMeanOutcome();
+        }
+        return same;
+    }
+
+    /**
+     * @return true if the exact mean outcome of a bet paying its multiplier
+     * is within the widened confidence interval of the simulated one.
+     */
+    private static boolean withinInterval(final double win, final double loss, final BetStatistics simulated)
+    {
+        final double exact = win * simulated.getMultiplier() - loss;
+        final double halfWidth = simulated.getConfidenceHalfWidth() * Z_999 / BetStatistics.Z_95;
+        return Math.abs(exact - simulated.getMeanOutcome()) <= halfWidth;
+    }
+}
@@ -0,0 +1,209 @@
+package client;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import model.Player;
+import model.PlayerImpl;
+import model.PlayerStore;
+import model.bet.Bet;
+import model.bet.ScoreBetImpl;
+import model.bet.SuitBetImpl;
+import model.card.ByteDeck;
+import model.card.Card;
+import model.card.Cards;
+import model.card.Deck;
+import model.card.Hand;
+import model.card.HandImpl;
+import model.card.Suit;
+
+/**
+ * A simple test client for {@link PlayerStore}.
+ *
+ * <p>First it plays the same random rounds with {@link PlayerImpl} players
+ * and with store views of players with the same details, and checks both
+ * end every round with the same points, bet results and string forms.</p>
+ *
+ * <p>It then measures the approximate heap used per idle player, both by
+ * {@link PlayerImpl} players kept in a map by ID (as the engine keeps them)
+ * and by a store sized for the players up front. Each PlayerImpl player has
+ * been dealt a hand once, as a player who has played a round would have
+ * been.</p>
+ *
+ * <p>Usage: {@code PlayerStoreTestClient [players] [rounds]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.PlayerStore
+ */
+public class PlayerStoreTestClient
+{
+    private static final int CHECK_PLAYERS = 50;
+    private static final int INITIAL_POINTS = 1000;
+
+    public static void main(final String[] args)
+    {
+        final int playerCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        final boolean matched = checkMatchesPlayerImpl(rounds);
+        System.out.printf("Store views match PlayerImpl over %d rounds: %s%n", rounds, matched);
+
+        final double implBytes = playerImplBytes(playerCount);
+        final double storeBytes = storeBytes(playerCount);
+        System.out.printf("%20s %15s%n", "players", "bytes per player");
+        System.out.printf("%20s %15.0f%n", "PlayerImpl map", implBytes);
+        System.out.printf("%20s %15.0f%n", "PlayerStore", storeBytes);
+        System.out.printf("Reduction: %.1fx%n", implBytes / storeBytes);
+        System.out.printf("OVERALL PLAYER STORE RESULT: %s%n", matched ? "PASSED" : "FAILED");
+    }
+
+    /**
+     * Plays random rounds with PlayerImpl players and store views side by
+     * side, dealing each pair the same cards.
+     *
+     * @return true if every pair ended every round the same.
+     */
+    private static boolean checkMatchesPlayerImpl(final int rounds)
+    {
+        final SplittableRandom random = new SplittableRandom(42);
+        final Suit[] suits = Suit.values();
+        final PlayerStore store = new PlayerStore(4);
+        final Player[] impls = new Player[CHECK_PLAYERS];
+        final Player[] views = new Player[CHECK_PLAYERS];
+        for (int p = 0; p < CHECK_PLAYERS; p++)
+        {
+            impls[p] = new PlayerImpl("P" + p, "Player " + p, INITIAL_POINTS);
+            views[p] = store.add("P" + p, "Player " + p, INITIAL_POINTS);
+        }
+        for (int p = 0; p < CHECK_PLAYERS; p++)
+        {
+            if (!views[p].equals(store.get("P" + p)) || store.slotOf("P" + p) != p)
+            {
+                System.out.printf("Lookup of P%d failed%n", p);
+                return false;
+            }
+        }
+
+        for (int round = 0; round < rounds; round++)
+        {
+            final Deck deck = ByteDeck.createShuffledDeck();
+            for (int p = 0; p < CHECK_PLAYERS; p++)
+            {
+                if (impls[p].getPoints() > 0 && random.nextInt(4) > 0)
+                {
+                    final int amount = 1 + random.nextInt(impls[p].getPoints());
+                    if (random.nextBoolean())
+                    {
+                        impls[p].assignBet(new ScoreBetImpl(impls[p], amount));
+                        views[p].assignBet(new ScoreBetImpl(views[p], amount));
+                    }
+                    else
+                    {
+                        final Suit suit = suits[random.nextInt(suits.length)];
+                        impls[p].assignBet(new SuitBetImpl(impls[p], amount, suit));
+                        views[p].assignBet(new SuitBetImpl(views[p], amount, suit));
+                    }
+                }
+                impls[p].getHand().reset();
+                views[p].getHand().reset();
+            }
+
+            // Deal each pair the same cards, up to three each, from one deck
+            for (int p = 0; p < CHECK_PLAYERS && deck.cardsInDeck() > 0; p++)
+            {
+                for (int c = 0; c < 3 && deck.cardsInDeck() > 0; c++)
+                {
+                    final Card card = deck.removeNextCard();
+                    if (impls[p].getHand().dealCard(card) != views[p].getHand().dealCard(card))
+                    {
+                        System.out.printf("Deal to P%d differed in round %d%n", p, round);
+                        return false;
+                    }
+                }
+            }
+            final Hand house = new HandImpl();
+            for (int c = 0; c < 4 && deck.cardsInDeck() > 0; c++)
+            {
+                house.dealCard(deck.removeNextCard());
+            }
+
+            for (int p = 0; p < CHECK_PLAYERS; p++)
+            {
+                impls[p].applyBetResult(house);
+                views[p].applyBetResult(house);
+                final Bet implBet = impls[p].getBet();
+                final Bet viewBet = views[p].getBet();
+                if (impls[p].getPoints() != views[p].getPoints()
+                    || impls[p].getTotalPoints() != views[p].getTotalPoints()
+                    || implBet.getResult() != viewBet.getResult()
+                    || implBet.getOutcome() != viewBet.getOutcome()
+                    || !impls[p].toString().equals(views[p].toString()))
+                {
+                    System.out.printf("Round %d differed:%n  %s%n  %s%n", round, impls[p], views[p]);
+                    return false;
+                }
+                impls[p].resetBet();
+                views[p].resetBet();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the approximate heap used by each PlayerImpl player kept in a
+     * map by ID.
+     */
+    private static double playerImplBytes(final int playerCount)
+    {
+        final long before = usedHeap();
+        final Map<String,Player> players = new HashMap<>();
+        for (int p = 0; p < playerCount; p++)
+        {
+            final Player player = new PlayerImpl("P" + p, "Player " + p, INITIAL_POINTS);
+            // Give the hand the backing array it has after any round
+            player.getHand().dealCard(Cards.of(p % Cards.DECK_SIZE));
+            player.getHand().reset();
+            players.put(player.getId(), player);
+        }
+        final long after = usedHeap();
+        if (players.size() != playerCount)
+        {
+            System.out.println("Players lost");
+        }
+        return (double) (after - before) / playerCount;
+    }
+
+    /**
+     * @return the approximate heap used by each player of a store.
+     */
+    private static double storeBytes(final int playerCount)
+    {
+        final long before = usedHeap();
+        final PlayerStore store = new PlayerStore(playerCount);
+        for (int p = 0; p < playerCount; p++)
+        {
+            store.add("P" + p, "Player " + p, INITIAL_POINTS);
+        }
+        final long after = usedHeap();
+        if (store.size() != playerCount)
+        {
+            System.out.println("Players lost");
+        }
+        return (double) (after - before) / playerCount;
+    }
+
+    /**
+     * @return the heap in use after a garbage collection.
+     */
+    private static long usedHeap()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
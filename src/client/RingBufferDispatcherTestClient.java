@@ -0,0 +1,364 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import model.Player;
+import model.PlayerImpl;
+import model.card.Card;
+import model.card.Cards;
+import model.card.Deck;
+import model.card.Hand;
+import model.card.Rank;
+import model.card.Suit;
+import view.BackpressurePolicy;
+import view.GameCallback;
+import view.RingBufferCallbackDispatcher;
+import view.WaitStrategy;
+
+/**
+ * A test client for the {@link RingBufferCallbackDispatcher}, which publishes
+ * a stream of numbered events to a fast and a slow callback through a small
+ * ring with each {@link BackpressurePolicy} and {@link WaitStrategy}.
+ *
+ * <p>Every callback must receive the events in the order they were
+ * published. Under {@link BackpressurePolicy#BLOCK} every event must be
+ * delivered, under {@link BackpressurePolicy#DROP} every event must be
+ * delivered or counted as dropped, and under
+ * {@link BackpressurePolicy#COALESCE} every event must be delivered or
+ * counted as coalesced, with every card event and the last bet update of
+ * each player always delivered.</p>
+ *
+ * <p>A callback is then held so its ring fills and its producer blocks, and
+ * an event published by another thread must still reach the other callback.
+ * Finally, under {@link BackpressurePolicy#COALESCE}, the last held back bet
+ * update must reach a callback once it catches up, without the producer
+ * publishing again or flushing.</p>
+ *
+ * <p>Usage: {@code RingBufferDispatcherTestClient [events]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.RingBufferCallbackDispatcher
+ */
+public class RingBufferDispatcherTestClient
+{
+    private static final int CAPACITY = 16;
+    private static final int PLAYER_COUNT = 4;
+    private static final int CARD_EVERY = 25;
+    private static final long SLOW_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final Card CARD = Cards.of(Suit.HEARTS, Rank.ACE);
+
+    public static void main(final String[] args) throws InterruptedException
+    {
+        final int eventCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        boolean passed = true;
+        for (final BackpressurePolicy policy : BackpressurePolicy.values())
+        {
+            for (final WaitStrategy waitStrategy : WaitStrategy.values())
+            {
+                passed &= test(policy, waitStrategy, eventCount);
+            }
+        }
+        passed &= testBlockedRingIsolation();
+        for (final WaitStrategy waitStrategy : WaitStrategy.values())
+        {
+            passed &= testHeldEventsDrained(waitStrategy);
+        }
+        System.out.println("OVERALL DISPATCHER RESULT: " + (passed ? "PASSED" : "FAILED"));
+        if (!passed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Publishes the numbered events through a dispatcher with the specified
+     * settings and checks what each callback received.
+     *
+     * @return true if all checks passed.
+     */
+    private static boolean test(final BackpressurePolicy policy, final WaitStrategy waitStrategy, final int eventCount)
+    {
+        final RecordingCallback fast = new RecordingCallback(0);
+        final RecordingCallback slow = new RecordingCallback(SLOW_NANOS);
+        final RingBufferCallbackDispatcher dispatcher = new RingBufferCallbackDispatcher(CAPACITY, waitStrategy, policy);
+        dispatcher.registerCallback(fast);
+        dispatcher.registerCallback(slow);
+        for (int sequence = 0; sequence < eventCount; sequence++)
+        {
+            publish(dispatcher, sequence);
+        }
+        dispatcher.close();
+
+        final int received = fast.received.size() + slow.received.size();
+        final long expected = 2L * eventCount;
+        boolean passed = isOrdered(fast.received) && isOrdered(slow.received);
+        switch (policy)
+        {
+            case BLOCK:
+                passed &= received == expected;
+                break;
+            case DROP:
+                passed &= received + dispatcher.getDroppedCount() == expected;
+                break;
+            default:
+                passed &= received + dispatcher.getCoalescedCount() == expected
+                    && hasRequiredEvents(fast.received, eventCount)
+                    && hasRequiredEvents(slow.received, eventCount);
+                break;
+        }
+        System.out.printf("%-9s %-10s fast %5d, slow %5d, dropped %5d, coalesced %5d: %s%n",
+            policy, waitStrategy, fast.received.size(), slow.received.size(),
+            dispatcher.getDroppedCount(), dispatcher.getCoalescedCount(), passed ? "PASS" : "FAIL");
+        return passed;
+    }
+
+    /**
+     * Fills a blocking ring by holding its callback, then checks that an event
+     * published by another thread still reaches a callback whose ring comes
+     * first while the first producer is blocked.
+     *
+     * @return true if the check passed.
+     */
+    private static boolean testBlockedRingIsolation() throws InterruptedException
+    {
+        final RecordingCallback fast = new RecordingCallback(0);
+        final RecordingCallback held = new RecordingCallback(0);
+        held.gate = new CountDownLatch(1);
+        final RingBufferCallbackDispatcher dispatcher =
+            new RingBufferCallbackDispatcher(CAPACITY, WaitStrategy.BLOCKING, BackpressurePolicy.BLOCK);
+        dispatcher.registerCallback(fast);
+        dispatcher.registerCallback(held);
+
+        final int blockedCount = CAPACITY * 4;
+        final Thread blocked = new Thread(() -> {
+            for (int sequence = 0; sequence < blockedCount; sequence++)
+            {
+                publish(dispatcher, sequence);
+            }
+        });
+        blocked.start();
+        while (fast.size() < CAPACITY)
+        {
+            Thread.sleep(1);
+        }
+
+        final Thread other = new Thread(() -> dispatcher.betUpdated(player(PLAYER_COUNT, blockedCount)));
+        other.start();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        boolean delivered = false;
+        while (!delivered && System.nanoTime() < deadline)
+        {
+            delivered = fast.contains(blockedCount);
+            Thread.sleep(1);
+        }
+        final boolean stillBlocked = blocked.isAlive();
+
+        held.gate.countDown();
+        blocked.join();
+        other.join();
+        dispatcher.close();
+        final boolean passed = delivered && stillBlocked && held.received.size() == blockedCount + 1;
+        System.out.printf("Blocked ring does not stall other rings: delivered=%b, producer blocked=%b: %s%n",
+            delivered, stillBlocked, passed ? "PASS" : "FAIL");
+        return passed;
+    }
+
+    /**
+     * Holds a callback until its coalescing ring is full and bet updates are
+     * held back, then releases it without publishing or flushing again, and
+     * checks that the last bet update is still delivered.
+     *
+     * @return true if the check passed.
+     */
+    private static boolean testHeldEventsDrained(final WaitStrategy waitStrategy) throws InterruptedException
+    {
+        final RecordingCallback held = new RecordingCallback(0);
+        held.gate = new CountDownLatch(1);
+        final RingBufferCallbackDispatcher dispatcher =
+            new RingBufferCallbackDispatcher(CAPACITY, waitStrategy, BackpressurePolicy.COALESCE);
+        dispatcher.registerCallback(held);
+
+        final int last = CAPACITY * 4;
+        for (int sequence = 1; sequence <= last; sequence++)
+        {
+            dispatcher.betUpdated(player(0, sequence));
+        }
+        held.gate.countDown();
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        boolean delivered = false;
+        while (!delivered && System.nanoTime() < deadline)
+        {
+            delivered = held.contains(last);
+            Thread.sleep(1);
+        }
+        final boolean coalesced = dispatcher.getCoalescedCount() > 0;
+        dispatcher.close();
+        final boolean passed = delivered && coalesced;
+        System.out.printf("Held events drained without a flush (%s): delivered=%b, coalesced=%b: %s%n",
+            waitStrategy, delivered, coalesced, passed ? "PASS" : "FAIL");
+        return passed;
+    }
+
+    /**
+     * Publishes the event with the specified sequence number, a player card
+     * event every few events and otherwise a bet update.
+     */
+    private static void publish(final RingBufferCallbackDispatcher dispatcher, final int sequence)
+    {
+        final Player player = player(sequence % PLAYER_COUNT, sequence);
+        if (sequence % CARD_EVERY == 0)
+        {
+            dispatcher.playerCard(player, CARD);
+        }
+        else
+        {
+            dispatcher.betUpdated(player);
+        }
+    }
+
+    /**
+     * @return a player with the specified index as its ID, carrying the
+     * sequence number of an event as its name.
+     */
+    private static Player player(final int index, final int sequence)
+    {
+        return new PlayerImpl("P" + index, Integer.toString(sequence), 100);
+    }
+
+    /**
+     * @return true if the sequence numbers are strictly increasing.
+     */
+    private static boolean isOrdered(final List<Integer> received)
+    {
+        for (int i = 1; i < received.size(); i++)
+        {
+            if (received.get(i) <= received.get(i - 1))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every card event and the last bet update of each
+     * player were received.
+     */
+    private static boolean hasRequiredEvents(final List<Integer> received, final int eventCount)
+    {
+        final Map<Integer,Integer> lastUpdate = new HashMap<>();
+        for (int sequence = 0; sequence < eventCount; sequence++)
+        {
+            if (sequence % CARD_EVERY == 0)
+            {
+                if (!received.contains(sequence))
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                lastUpdate.put(sequence % PLAYER_COUNT, sequence);
+            }
+        }
+        return received.containsAll(lastUpdate.values());
+    }
+
+    /**
+     * Records the sequence number of every event it is delivered, optionally
+     * waiting before each one.
+     */
+    private static final class RecordingCallback implements GameCallback
+    {
+        private final long delayNanos;
+        private final List<Integer> received;
+        private volatile CountDownLatch gate;
+
+        private RecordingCallback(final long delayNanos)
+        {
+            this.delayNanos = delayNanos;
+            this.received = new ArrayList<>();
+        }
+
+        private synchronized void record(final Player player)
+        {
+            final CountDownLatch waitFor = gate;
+            if (waitFor != null)
+            {
+                try
+                {
+                    waitFor.await();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (delayNanos > 0)
+            {
+                LockSupport.parkNanos(delayNanos);
+            }
+            received.add(Integer.valueOf(player.getName()));
+        }
+
+        private synchronized int size()
+        {
+            return received.size();
+        }
+
+        private synchronized boolean contains(final int sequence)
+        {
+            return received.contains(sequence);
+        }
+
+        @Override
+        public void betUpdated(final Player player)
+        {
+            record(player);
+        }
+
+        @Override
+        public void playerCard(final Player player, final Card card)
+        {
+            record(player);
+        }
+
+        @Override
+        public void addPlayer(final Player player)
+        {
+        }
+
+        @Override
+        public void removePlayer(final Player player)
+        {
+        }
+
+        @Override
+        public void newDeck(final Deck deck)
+        {
+        }
+
+        @Override
+        public void playerBust(final Player player, final Card card)
+        {
+        }
+
+        @Override
+        public void houseCard(final Hand houseHand, final Card card)
+        {
+        }
+
+        @Override
+        public void houseBust(final Hand houseHand, final Card card)
+        {
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import model.Player;
+import model.PlayerImpl;
+import model.SettlementEngine;
+import model.bet.ScoreBetImpl;
+import model.bet.SuitBetImpl;
+import model.card.ByteDeck;
+import model.card.Deck;
+import model.card.Hand;
+import model.card.HandImpl;
+import model.card.Suit;
+
+/**
+ * A simple benchmark which settles the bets of every player at one very
+ * large table, comparing the original loop over the players with the
+ * {@link SettlementEngine} settling sequentially and in parallel.
+ *
+ * <p>Half the players have a score bet and half a suit bet. Settling a bet
+ * again after it has been settled does the same work, so each run settles
+ * the same players. Each configuration is warmed up before it is timed.
+ * Results are in milliseconds per settlement of all players.</p>
+ *
+ * <p>Usage: {@code SettlementBenchmark [players]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.SettlementEngine
+ */
+public class SettlementBenchmark
+{
+    private static final int WARMUP_RUNS = 50;
+    private static final int TIMED_RUNS = 50;
+
+    public static void main(final String[] args)
+    {
+        final int playerCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        final List<Player> players = new ArrayList<>(playerCount);
+        for (int p = 0; p < playerCount; p++)
+        {
+            final Player player = new PlayerImpl("P" + p, "Player " + p, Integer.MAX_VALUE / 2);
+            player.assignBet(p % 2 == 0
+                ? new ScoreBetImpl(player, 1)
+                : new SuitBetImpl(player, 1, Suit.values()[p % 4]));
+            dealUntilBust(player.getHand());
+            players.add(player);
+        }
+        final Hand houseHand = new HandImpl();
+        dealUntilBust(houseHand);
+
+        final SettlementEngine sequential = new SettlementEngine(Integer.MAX_VALUE, ForkJoinPool.commonPool());
+        final SettlementEngine parallel = new SettlementEngine();
+        for (int i = 0; i < WARMUP_RUNS; i++)
+        {
+            loop(players, houseHand);
+            sequential.settle(players, houseHand);
+            parallel.settle(players, houseHand);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++)
+        {
+            loop(players, houseHand);
+        }
+        final double loopMillis = (System.nanoTime() - start) / 1e6 / TIMED_RUNS;
+        start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++)
+        {
+            sequential.settle(players, houseHand);
+        }
+        final double sequentialMillis = (System.nanoTime() - start) / 1e6 / TIMED_RUNS;
+        start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++)
+        {
+            parallel.settle(players, houseHand);
+        }
+        final double parallelMillis = (System.nanoTime() - start) / 1e6 / TIMED_RUNS;
+
+        System.out.printf("Settling %d bets on %d cores%n", playerCount, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%25s %10.2f ms%n", "loop over players", loopMillis);
+        System.out.printf("%25s %10.2f ms%n", "settlement sequential", sequentialMillis);
+        System.out.printf("%25s %10.2f ms%n", "settlement fork/join", parallelMillis);
+    }
+
+    /**
+     * Settles each player in turn, as the engine originally did.
+     */
+    private static void loop(final List<Player> players, final Hand houseHand)
+    {
+        for (final Player player : players)
+        {
+            player.applyBetResult(houseHand);
+        }
+    }
+
+    /**
+     * Deals cards from a new deck into the hand until it would bust.
+     */
+    private static void dealUntilBust(final Hand hand)
+    {
+        final Deck deck = ByteDeck.createLazyShuffledDeck();
+        while (hand.dealCard(deck.removeNextCard()))
+        {
+            // Keep dealing
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import model.PlayerImpl;
+import model.TableManager;
+import model.card.DeckPool;
+import model.card.Suit;
+
+/**
+ * A test client which runs many tables concurrently through a
+ * {@link TableManager} with no dealing delay and no callbacks, and reports the
+ * aggregate throughput in rounds per second.
+ *
+ * <p>Usage: {@code TableManagerTestClient [tables] [rounds] [workers]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.TableManager
+ */
+public class TableManagerTestClient
+{
+    private static final int PLAYERS_PER_TABLE = 4;
+    private static final int BET_AMOUNT = 10;
+
+    public static void main(final String[] args)
+    {
+        final int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final int roundCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        final int workerCount = args.length > 2
+            ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        try (final TableManager manager = new TableManager(workerCount))
+        {
+            final List<CompletableFuture<Void>> lastCommands = new ArrayList<>();
+            for (int t = 0; t < tableCount; t++)
+            {
+                final String tableId = "T" + t;
+                manager.createTable(tableId);
+                for (int p = 0; p < PLAYERS_PER_TABLE; p++)
+                {
+                    manager.addPlayer(tableId, new PlayerImpl("P" + p, "Player " + p, Integer.MAX_VALUE / 2));
+                }
+            }
+
+            for (int t = 0; t < tableCount; t++)
+            {
+                final String tableId = "T" + t;
+                CompletableFuture<Void> last = null;
+                for (int r = 0; r < roundCount; r++)
+                {
+                    for (int p = 0; p < PLAYERS_PER_TABLE; p++)
+                    {
+                        if (p % 2 == 0)
+                        {
+                            manager.placeBet(tableId, "P" + p, BET_AMOUNT);
+                        }
+                        else
+                        {
+                            manager.placeBet(tableId, "P" + p, BET_AMOUNT, Suit.values()[p % 4]);
+                        }
+                        manager.dealPlayer(tableId, "P" + p, 0);
+                    }
+                    manager.dealHouse(tableId, 0);
+                    last = manager.resetAllBetsAndHands(tableId);
+                }
+                lastCommands.add(last);
+            }
+
+            CompletableFuture.allOf(lastCommands.toArray(new CompletableFuture<?>[0])).join();
+
+            System.out.printf(
+                "%d tables x %d rounds on %d workers: %.0f rounds/sec aggregate, T0 %.0f rounds/sec%n",
+                tableCount, roundCount, workerCount,
+                manager.getAggregateRoundsPerSecond(), manager.getRoundsPerSecond("T0")
+            );
+            System.out.printf(
+                "Deck pool: %d hits, %d misses%n", DeckPool.shared().getHits(), DeckPool.shared().getMisses()
+            );
+        }
+    }
+
+}
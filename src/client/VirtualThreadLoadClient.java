@@ -0,0 +1,76 @@
+package client;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import model.PlayerImpl;
+import model.TableEngine;
+import util.VirtualThreads;
+
+/**
+ * A load client which deals to a very large number of players at once, each
+ * on its own virtual thread, using the same blocking paced deal as
+ * {@link BasicTestClient}.
+ *
+ * <p>With 100,000 players and a 100ms delay every deal sleeps for several
+ * hundred ms, so all of the deals are in progress at the same time. The
+ * client reports the elapsed time and the peak number of platform threads,
+ * which stays small because the sleeping virtual threads are parked rather
+ * than holding a carrier thread. The number of carrier threads can be bounded
+ * with {@code -Djdk.virtualThreadScheduler.parallelism=N}.</p>
+ *
+ * <p>Virtual threads need Java 21 or later. On older JVMs each deal uses a
+ * platform thread instead, so the default number of players is reduced.</p>
+ *
+ * <p>Usage: {@code VirtualThreadLoadClient [players] [delay]}</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.TableEngine#dealPlayerOnVirtualThread(String, int)
+ */
+public class VirtualThreadLoadClient
+{
+    private static final int DEFAULT_PLAYERS = 100_000;
+    private static final int DEFAULT_PLATFORM_PLAYERS = 1_000;
+    private static final int TEST_DELAY = 100;
+    private static final int BET_AMOUNT = 10;
+
+    public static void main(final String[] args)
+    {
+        if (!VirtualThreads.isSupported())
+        {
+            System.out.println("Virtual threads are not supported by this JVM, using platform threads");
+        }
+        final int playerCount = args.length > 0 ? Integer.parseInt(args[0])
+            : VirtualThreads.isSupported() ? DEFAULT_PLAYERS : DEFAULT_PLATFORM_PLAYERS;
+        final int delay = args.length > 1 ? Integer.parseInt(args[1]) : TEST_DELAY;
+
+        final TableEngine engine = new TableEngine(true);
+        for (int i = 0; i < playerCount; i++)
+        {
+            final String playerId = "P" + i;
+            engine.addPlayer(new PlayerImpl(playerId, "Player " + i, 1000));
+            engine.placeBet(playerId, BET_AMOUNT);
+        }
+
+        final long start = System.nanoTime();
+        final List<CompletableFuture<Void>> deals = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++)
+        {
+            deals.add(engine.dealPlayerOnVirtualThread("P" + i, delay));
+        }
+        CompletableFuture.allOf(deals.toArray(new CompletableFuture<?>[0])).join();
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        engine.dealHouse(0);
+
+        System.out.printf(
+            "%d paced deals (%dms delay) in %dms, peak platform threads %d%n",
+            playerCount, delay, elapsedMillis,
+            ManagementFactory.getThreadMXBean().getPeakThreadCount()
+        );
+    }
+
+}
@@ -0,0 +1,125 @@
+package model;
+
+import model.bet.Bet;
+import model.bet.ScoreBetImpl;
+import model.bet.SuitBetImpl;
+import model.card.Suit;
+import util.ExceptionUtil;
+
+/**
+ * A request to place a single bet, used to place bets for many players at
+ * once with {@link TableEngine#placeBets(java.util.Collection)}.
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public final class BetRequest
+{
+
+    /**
+     * ID of the player placing the bet.
+     */
+    private final String playerId;
+
+    /**
+     * Amount of the bet.
+     */
+    private final int amount;
+
+    /**
+     * Suit of a suit bet, or null for a score bet.
+     */
+    private final Suit suit;
+
+    /**
+     * Creates a request for a score bet.
+     *
+     * @param playerId ID of the player placing the bet.
+     * @param amount amount of the bet.
+     * @return a new score bet request.
+     * @throws NullPointerException if the player ID is null
+     */
+    public static BetRequest scoreBet(final String playerId, final int amount)
+        throws NullPointerException
+    {
+        return new BetRequest(playerId, amount, null);
+    }
+
+    /**
+     * Creates a request for a suit bet.
+     *
+     * @param playerId ID of the player placing the bet.
+     * @param amount amount of the bet.
+     * @param suit the suit the player is betting on.
+     * @return a new suit bet request.
+     * @throws NullPointerException if the player ID or suit is null
+     */
+    public static BetRequest suitBet(final String playerId, final int amount, final Suit suit)
+        throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(suit, "Suit cannot be null");
+        return new BetRequest(playerId, amount, suit);
+    }
+
+    /**
+     * Private constructor, use the static factory methods.
+     */
+    private BetRequest(final String playerId, final int amount, final Suit suit)
+    {
+        ExceptionUtil.assertNotNull(playerId, "Player ID cannot be null");
+        this.playerId = playerId;
+        this.amount = amount;
+        this.suit = suit;
+    }
+
+    /**
+     * @return the ID of the player placing the bet.
+     */
+    public String getPlayerId()
+    {
+        return playerId;
+    }
+
+    /**
+     * @return the amount of the bet.
+     */
+    public int getAmount()
+    {
+        return amount;
+    }
+
+    /**
+     * @return the suit of a suit bet, or null for a score bet.
+     */
+    public Suit getSuit()
+    {
+        return suit;
+    }
+
+    /**
+     * Creates the requested bet for the specified player, which validates the
+     * amount against the player's points.
+     *
+     * @param player the player placing the bet.
+     * @return the new bet.
+     */
+    Bet createBet(final Player player)
+    {
+        if (suit == null)
+        {
+            return new ScoreBetImpl(player, amount);
+        }
+        return new SuitBetImpl(player, amount, suit);
+    }
+
+    /**
+     * Returns a string representation of this request.
+     */
+    @Override
+    public String toString()
+    {
+        return suit == null
+            ? String.format("Score Bet for %d by %s", amount, playerId)
+            : String.format("Suit Bet for %d on %s by %s", amount, suit, playerId);
+    }
+
+}
@@ -0,0 +1,698 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import model.bet.Bet;
+import model.bet.BetResult;
+import model.bet.ScoreBet;
+import model.bet.SuitBet;
+import model.card.BitmaskHand;
+import model.card.Card;
+import model.card.Hand;
+import model.card.Suit;
+import util.ExceptionUtil;
+
+/**
+ * A registry for very large numbers of players which keeps every player's
+ * state in parallel primitive arrays rather than in a {@link PlayerImpl}
+ * object graph.
+ *
+ * <p>Each player is given a dense slot number and their points, bet amount,
+ * bet kind (none, score or the suit bet on), bet multiplier, bet result and
+ * hand (as a {@link BitmaskHand} mask and deal order) are held at that index
+ * in separate arrays. IDs and names are stored once as UTF-8 bytes in a
+ * single shared byte array, and IDs are found through an open addressing
+ * hash table of slot numbers, so no String or map entry is kept per
+ * player.</p>
+ *
+ * <p>{@link #get(String)} returns a small flyweight {@link Player} view of a
+ * slot, which reads and writes the arrays directly and may be used anywhere
+ * a Player is expected, such as with a {@link TableEngine}. Its bet and hand
+ * are views in the same way. Views are created when asked for, and two
+ * views of the same slot are equal.</p>
+ *
+ * <p>Limitations: players cannot be removed, only score and suit bets can be
+ * assigned, and hands hold each card at most once (so players can only be
+ * dealt from a single deck at a time). The store is not thread safe while
+ * players are being added. Once all players have been added, different
+ * players may be used from different threads.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.BitmaskHand
+ */
+public final class PlayerStore
+{
+
+    /**
+     * Default number of players the store has room for before growing.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Bet kind of a player without a bet.
+     */
+    private static final byte NO_BET = 0;
+
+    /**
+     * Bet kind of a score bet, suit bets are this plus one plus the suit
+     * ordinal.
+     */
+    private static final byte SCORE_BET = 1;
+
+    private static final Suit[] SUITS = Suit.values();
+    private static final BetResult[] RESULTS = BetResult.values();
+
+    /**
+     * Number of players in the store.
+     */
+    private int size;
+
+    private int[] points;
+    private int[] betAmounts;
+    private byte[] betKinds;
+    private byte[] betMultipliers;
+    private byte[] betResults;
+    private long[] handMasks;
+    private long[] handOrders;
+
+    /**
+     * Start of each player's ID in the string table. The name follows the
+     * ID, and ends at the start of the next player's ID.
+     */
+    private int[] idStarts;
+
+    /**
+     * Start of each player's name in the string table.
+     */
+    private int[] nameStarts;
+
+    /**
+     * UTF-8 bytes of every player's ID and name, in slot order.
+     */
+    private byte[] strings;
+
+    /**
+     * Number of bytes used in the string table.
+     */
+    private int stringsLength;
+
+    /**
+     * Open addressing hash table of slot number plus one, indexed by the
+     * hash of the player's ID, with 0 marking an empty entry.
+     */
+    private int[] idTable;
+
+    /**
+     * Creates an empty store with the default capacity.
+     */
+    public PlayerStore()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty store with room for the specified number of players,
+     * so a store for a known number of players never needs to grow.
+     *
+     * @param capacity number of players to make room for.
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public PlayerStore(final int capacity) throws IllegalArgumentException
+    {
+        ExceptionUtil.assertLegalArgument(capacity > 0, "Capacity must be positive");
+        this.points = new int[capacity];
+        this.betAmounts = new int[capacity];
+        this.betKinds = new byte[capacity];
+        this.betMultipliers = new byte[capacity];
+        this.betResults = new byte[capacity];
+        this.handMasks = new long[capacity];
+        this.handOrders = new long[capacity];
+        this.idStarts = new int[capacity + 1];
+        this.nameStarts = new int[capacity];
+        this.strings = new byte[capacity * 16];
+        this.idTable = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+    }
+
+    /**
+     * Adds a player with the specified details, validated as for
+     * {@link PlayerImpl}, and returns a view of them.
+     *
+     * @param id the ID of the player.
+     * @param name the name of the player.
+     * @param initialPoints the points the player starts with.
+     * @return a view of the new player.
+     * @throws NullPointerException if the ID or name is null
+     * @throws IllegalArgumentException if the ID or name is empty, the points
+     * are not positive or a player with the ID already exists
+     */
+    public Player add(final String id, final String name, final int initialPoints)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(id, "Player ID cannot be null");
+        ExceptionUtil.assertNotNull(name, "Player name cannot be null");
+        ExceptionUtil.assertLegalArgument(id.trim().length() > 0, "Player ID cannot be empty");
+        ExceptionUtil.assertLegalArgument(name.trim().length() > 0, "Player name cannot be empty");
+        ExceptionUtil.assertLegalArgument(initialPoints > 0, "Player must be positive");
+
+        final byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        final int tableIndex = findTableIndex(idBytes);
+        ExceptionUtil.assertLegalArgument(
+            idTable[tableIndex] == 0, String.format("Player with ID %s exists in store", id)
+        );
+
+        if (size == points.length)
+        {
+            grow();
+        }
+        final int slot = size++;
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        ensureStringCapacity(idBytes.length + nameBytes.length);
+        idStarts[slot] = stringsLength;
+        System.arraycopy(idBytes, 0, strings, stringsLength, idBytes.length);
+        stringsLength += idBytes.length;
+        nameStarts[slot] = stringsLength;
+        System.arraycopy(nameBytes, 0, strings, stringsLength, nameBytes.length);
+        stringsLength += nameBytes.length;
+        idStarts[slot + 1] = stringsLength;
+
+        points[slot] = initialPoints;
+        idTable[tableIndex] = slot + 1;
+        if (size * 2 > idTable.length)
+        {
+            rehash();
+        }
+        return new StoredPlayer(slot);
+    }
+
+    /**
+     * @param id the ID of a player.
+     * @return a view of the player with the ID, or null if there is none.
+     */
+    public Player get(final String id)
+    {
+        final int slot = slotOf(id);
+        return slot < 0 ? null : new StoredPlayer(slot);
+    }
+
+    /**
+     * @param slot the slot number of a player.
+     * @return a view of the player in the slot.
+     * @throws IndexOutOfBoundsException if there is no player in the slot
+     */
+    public Player get(final int slot) throws IndexOutOfBoundsException
+    {
+        if (slot < 0 || slot >= size)
+        {
+            throw new IndexOutOfBoundsException(String.format("No player in slot %d", slot));
+        }
+        return new StoredPlayer(slot);
+    }
+
+    /**
+     * @param id the ID of a player.
+     * @return the slot number of the player with the ID, or -1 if there is
+     * none.
+     */
+    public int slotOf(final String id)
+    {
+        ExceptionUtil.assertNotNull(id, "Player ID cannot be null");
+        return idTable[findTableIndex(id.getBytes(StandardCharsets.UTF_8))] - 1;
+    }
+
+    /**
+     * @return the number of players in the store.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Finds the hash table entry for the ID, which is either the entry of the
+     * player with the ID or the empty entry where it would be added.
+     */
+    private int findTableIndex(final byte[] idBytes)
+    {
+        final int mask = idTable.length - 1;
+        int index = hash(idBytes, 0, idBytes.length) & mask;
+        while (idTable[index] != 0 && !idEquals(idTable[index] - 1, idBytes))
+        {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * @return true if the slot's ID has the specified bytes.
+     */
+    private boolean idEquals(final int slot, final byte[] idBytes)
+    {
+        final int start = idStarts[slot];
+        if (nameStarts[slot] - start != idBytes.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < idBytes.length; i++)
+        {
+            if (strings[start + i] != idBytes[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes a run of bytes, spreading the bits so that similar IDs (e.g.
+     * "P1", "P2") do not cluster in the table.
+     */
+    private static int hash(final byte[] bytes, final int from, final int to)
+    {
+        int hash = 1;
+        for (int i = from; i < to; i++)
+        {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Doubles the size of the ID hash table and re-inserts every player.
+     */
+    private void rehash()
+    {
+        idTable = new int[idTable.length * 2];
+        final int mask = idTable.length - 1;
+        for (int slot = 0; slot < size; slot++)
+        {
+            int index = hash(strings, idStarts[slot], nameStarts[slot]) & mask;
+            while (idTable[index] != 0)
+            {
+                index = (index + 1) & mask;
+            }
+            idTable[index] = slot + 1;
+        }
+    }
+
+    /**
+     * Grows every per player array by half.
+     */
+    private void grow()
+    {
+        final int capacity = points.length + (points.length >> 1) + 1;
+        points = Arrays.copyOf(points, capacity);
+        betAmounts = Arrays.copyOf(betAmounts, capacity);
+        betKinds = Arrays.copyOf(betKinds, capacity);
+        betMultipliers = Arrays.copyOf(betMultipliers, capacity);
+        betResults = Arrays.copyOf(betResults, capacity);
+        handMasks = Arrays.copyOf(handMasks, capacity);
+        handOrders = Arrays.copyOf(handOrders, capacity);
+        idStarts = Arrays.copyOf(idStarts, capacity + 1);
+        nameStarts = Arrays.copyOf(nameStarts, capacity);
+    }
+
+    /**
+     * Ensures the string table has room for the specified number of extra
+     * bytes.
+     */
+    private void ensureStringCapacity(final int extra)
+    {
+        if (stringsLength + extra > strings.length)
+        {
+            strings = Arrays.copyOf(strings, Math.max(stringsLength + extra, strings.length + (strings.length >> 1)));
+        }
+    }
+
+    /**
+     * Decodes a run of the string table.
+     */
+    private String decode(final int from, final int to)
+    {
+        return new String(strings, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Flyweight Player view of a slot.
+     */
+    private final class StoredPlayer implements Player
+    {
+        private final int slot;
+
+        private StoredPlayer(final int slot)
+        {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getId()
+        {
+            return decode(idStarts[slot], nameStarts[slot]);
+        }
+
+        @Override
+        public String getName()
+        {
+            return decode(nameStarts[slot], idStarts[slot + 1]);
+        }
+
+        @Override
+        public int getPoints()
+        {
+            return points[slot];
+        }
+
+        @Override
+        public int getTotalPoints()
+        {
+            return points[slot] + betAmounts[slot];
+        }
+
+        /**
+         * Stores the amount, kind and multiplier of the bet, returning the
+         * amount of any existing bet to the player's points as
+         * {@link PlayerImpl} does.
+         *
+         * @throws IllegalArgumentException if the bet is not a score or suit
+         * bet
+         */
+        @Override
+        public void assignBet(final Bet bet) throws IllegalArgumentException
+        {
+            final byte kind;
+            if (bet == Bet.NO_BET)
+            {
+                kind = NO_BET;
+            }
+            else if (bet instanceof SuitBet)
+            {
+                kind = (byte) (SCORE_BET + 1 + ((SuitBet) bet).getSuit().ordinal());
+            }
+            else
+            {
+                ExceptionUtil.assertLegalArgument(
+                    bet instanceof ScoreBet, "Only score and suit bets can be stored"
+                );
+                kind = SCORE_BET;
+            }
+            points[slot] = (points[slot] + betAmounts[slot]) - bet.getAmount();
+            betAmounts[slot] = bet.getAmount();
+            betKinds[slot] = kind;
+            betMultipliers[slot] = (byte) bet.getMultiplier();
+            betResults[slot] = (byte) bet.getResult().ordinal();
+        }
+
+        @Override
+        public Bet getBet()
+        {
+            final byte kind = betKinds[slot];
+            if (kind == NO_BET)
+            {
+                return Bet.NO_BET;
+            }
+            return kind == SCORE_BET
+                ? new StoredScoreBet(this)
+                : new StoredSuitBet(this, SUITS[kind - SCORE_BET - 1]);
+        }
+
+        @Override
+        public Hand getHand()
+        {
+            return new StoredHand(slot);
+        }
+
+        /**
+         * Applies the result of the bet as {@link PlayerImpl} does.
+         */
+        @Override
+        public void applyBetResult(final Hand houseHand)
+        {
+            if (houseHand != null)
+            {
+                final Bet bet = getBet();
+                final BetResult result = bet.finaliseBet(houseHand);
+                if (result.equals(BetResult.PLAYER_WIN))
+                {
+                    points[slot] += bet.getOutcome();
+                }
+                else if (result.equals(BetResult.DRAW))
+                {
+                    points[slot] += bet.getAmount();
+                }
+            }
+        }
+
+        @Override
+        public void resetBet()
+        {
+            assignBet(Bet.NO_BET);
+        }
+
+        @Override
+        public boolean equals(final Object other)
+        {
+            return other instanceof StoredPlayer
+                && ((StoredPlayer) other).slot == slot
+                && ((StoredPlayer) other).store() == PlayerStore.this;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return slot;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format(
+                "Player id=%s, name=%s, points=%d, %s, %s",
+                getId(), getName(), getPoints(), getBet(), getHand()
+            );
+        }
+
+        /**
+         * @return the store this view belongs to.
+         */
+        private PlayerStore store()
+        {
+            return PlayerStore.this;
+        }
+    }
+
+    /**
+     * Flyweight view of a slot's bet, which follows the rules of
+     * {@link model.bet.AbstractBet}.
+     */
+    private abstract class StoredBet implements Bet
+    {
+        protected final StoredPlayer player;
+
+        private StoredBet(final StoredPlayer player)
+        {
+            this.player = player;
+        }
+
+        @Override
+        public Player getPlayer()
+        {
+            return player;
+        }
+
+        @Override
+        public int getAmount()
+        {
+            return betAmounts[player.slot];
+        }
+
+        @Override
+        public int getMultiplier()
+        {
+            return betMultipliers[player.slot];
+        }
+
+        @Override
+        public BetResult getResult()
+        {
+            return RESULTS[betResults[player.slot]];
+        }
+
+        @Override
+        public int getOutcome()
+        {
+            return getOutcome(getResult());
+        }
+
+        @Override
+        public int getOutcome(final BetResult result)
+        {
+            if (result.equals(BetResult.PLAYER_WIN))
+            {
+                return getAmount() * getMultiplier();
+            }
+            else if (result.equals(BetResult.PLAYER_LOSS))
+            {
+                return -getAmount();
+            }
+            return 0;
+        }
+
+        @Override
+        public int compareTo(final Bet bet)
+        {
+            return Integer.compare(getOutcome(), bet.getOutcome());
+        }
+
+        /**
+         * Stores the result of the bet and returns it.
+         */
+        protected BetResult setResult(final BetResult result)
+        {
+            betResults[player.slot] = (byte) result.ordinal();
+            return result;
+        }
+    }
+
+    /**
+     * Flyweight view of a slot's score bet, which follows the rules of
+     * {@link model.bet.ScoreBetImpl}.
+     */
+    private final class StoredScoreBet extends StoredBet implements ScoreBet
+    {
+        private StoredScoreBet(final StoredPlayer player)
+        {
+            super(player);
+        }
+
+        @Override
+        public BetResult finaliseBet(final Hand houseHand)
+        {
+            final int playerScore = player.getHand().getScore();
+            final int houseScore = houseHand.getScore();
+            if (playerScore < houseScore)
+            {
+                return setResult(BetResult.PLAYER_LOSS);
+            }
+            return setResult(playerScore == houseScore ? BetResult.DRAW : BetResult.PLAYER_WIN);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("Score Bet for %s", getAmount());
+        }
+    }
+
+    /**
+     * Flyweight view of a slot's suit bet, which follows the rules of
+     * {@link model.bet.SuitBetImpl}.
+     */
+    private final class StoredSuitBet extends StoredBet implements SuitBet
+    {
+        private final Suit suit;
+
+        private StoredSuitBet(final StoredPlayer player, final Suit suit)
+        {
+            super(player);
+            this.suit = suit;
+        }
+
+        @Override
+        public Suit getSuit()
+        {
+            return suit;
+        }
+
+        @Override
+        public BetResult finaliseBet(final Hand houseHand)
+        {
+            final int playerSuitCount = player.getHand().getSuitCount(suit);
+            final int houseSuitCount = houseHand.getSuitCount(suit);
+            return setResult(playerSuitCount <= houseSuitCount ? BetResult.PLAYER_LOSS : BetResult.PLAYER_WIN);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("Suit Bet for %s on %s", getAmount(), getSuit());
+        }
+    }
+
+    /**
+     * Flyweight view of a slot's hand, which works on the slot's mask and
+     * deal order in the same way as a {@link BitmaskHand}.
+     */
+    private final class StoredHand implements Hand
+    {
+        private final int slot;
+
+        private StoredHand(final int slot)
+        {
+            this.slot = slot;
+        }
+
+        /**
+         * @return a bitmask hand holding a copy of the slot's hand.
+         */
+        private BitmaskHand read()
+        {
+            return BitmaskHand.fromBits(handMasks[slot], handOrders[slot]);
+        }
+
+        @Override
+        public boolean dealCard(final Card card)
+        {
+            final BitmaskHand hand = read();
+            final boolean dealt = hand.dealCard(card);
+            handMasks[slot] = hand.getMask();
+            handOrders[slot] = hand.getOrder();
+            return dealt;
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return handMasks[slot] == 0;
+        }
+
+        @Override
+        public int getNumberOfCards()
+        {
+            return Long.bitCount(handMasks[slot]);
+        }
+
+        @Override
+        public int getScore()
+        {
+            return read().getScore();
+        }
+
+        @Override
+        public int getSuitCount(final Suit suit)
+        {
+            return read().getSuitCount(suit);
+        }
+
+        @Override
+        public Collection<Card> getCards()
+        {
+            return read().getCards();
+        }
+
+        @Override
+        public void reset()
+        {
+            handMasks[slot] = 0;
+            handOrders[slot] = 0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return read().toString();
+        }
+    }
+
+}
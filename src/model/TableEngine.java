@@ -0,0 +1,1437 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+import model.bet.Bet;
+import model.bet.ScoreBetImpl;
+import model.bet.SuitBetImpl;
+import model.card.Card;
+import model.card.ByteDeck;
+import model.card.Deck;
+import model.card.DeckComposition;
+import model.card.DeckPool;
+import model.card.DeckSeed;
+import model.card.Hand;
+import model.card.HandImpl;
+import model.card.ShoeDeck;
+import model.card.Suit;
+import util.ExceptionUtil;
+import util.NoOpLock;
+import util.VirtualThreads;
+import view.BulkGameCallback;
+import view.CallbackRegistry;
+import view.GameCallback;
+import view.GameEventType;
+import view.OddsGameCallback;
+import view.PlayerCallbackCollection;
+
+/**
+ * Game engine for a single table, which holds the game logic used by
+ * {@link GameEngineImpl}.
+ *
+ * <p>The validator does not allow {@link GameEngineImpl} to have any members
+ * beyond the specification, so the engine lives here where it can also offer
+ * optional modes and extra operations. {@link GameEngineImpl} is a thin
+ * wrapper around a sequential TableEngine.</p>
+ *
+ * <p>A TableEngine can be created in <b>concurrent</b> mode, in which it is
+ * safe to call from many threads at once:</p>
+ * <ul>
+ * <li>players are held in a {@link ConcurrentHashMap}</li>
+ * <li>every player has its own lock which is held while their bet is
+ * assigned or their hand is dealt, so bets and deals for different players
+ * never contend</li>
+ * <li>a round phase guard lets any number of bets and player deals run
+ * together, but gives adding and removing players, {@link #dealHouse(int)}
+ * and {@link #resetAllBetsAndHands()} exclusive access so the bets are
+ * settled against a consistent snapshot of all players</li>
+ * </ul>
+ *
+ * <p>In the default sequential mode all of the locks are no-ops.</p>
+ *
+ * <p><b>Note:</b> callbacks must not call back into the engine to place bets
+ * or deal, as the round phase guard is not re-entrant.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public class TableEngine implements GameEngine, PlayerCallbackCollection
+{
+
+    /**
+     * Composition of a full deck, which is never changed, for the odds of the
+     * first card from a new deck.
+     */
+    private static final DeckComposition FULL_DECK = DeckComposition.fullDeck();
+
+    /**
+     * Registry of all registered callbacks, as multiple callbacks may be
+     * registered, which holds the callbacks subscribed to each kind of event.
+     */
+    private final CallbackRegistry callbacks;
+
+    /**
+     * Map of all players in this instance of the game, using the player ID as
+     * the map key and a reference to the player as the value.
+     */
+    private final Map<String,Player> players;
+
+    /**
+     * Map of the lock for each player, using the player ID as the map key.
+     */
+    private final Map<String,Lock> playerLocks;
+
+    /**
+     * Shared side of the round phase guard, held while placing bets and
+     * dealing to players.
+     */
+    private final Lock roundLock;
+
+    /**
+     * Exclusive side of the round phase guard, held while dealing to the
+     * house, settling bets and resetting the round.
+     */
+    private final Lock settlementLock;
+
+    /**
+     * Held while taking a card from the deck, as players may be dealt to at
+     * the same time.
+     */
+    private final Lock deckLock;
+
+    /**
+     * IDs of the players currently being dealt to, so a player cannot be
+     * dealt to twice while an asynchronous deal has not yet dealt a card.
+     */
+    private final Set<String> dealsInProgress;
+
+    /**
+     * Whether this engine is in concurrent mode.
+     */
+    private final boolean concurrent;
+
+    /**
+     * The current hand the house is holding in this game.
+     */
+    private final Hand houseHand;
+
+    /**
+     * The current deck in use by this game.
+     */
+    private Deck deck;
+
+    /**
+     * How each deck used in the current round was shuffled, in the order the
+     * decks were used. Guarded by the deck lock.
+     */
+    private final List<DeckSeed> roundSeeds;
+
+    /**
+     * The shoe dealt from in every round, or null to deal from a new deck in
+     * every round.
+     */
+    private final ShoeDeck shoe;
+
+    /**
+     * Number of the shoe the last card was dealt from, so the new deck
+     * callbacks can be fired when the shoe changes.
+     */
+    private long shoeNumber;
+
+    /**
+     * Settles the bets of all players when the house busts.
+     */
+    private final SettlementEngine settlement;
+
+    /**
+     * Time taken to settle the bets in the last round, in ns.
+     */
+    private volatile long lastSettlementNanos;
+
+    /**
+     * Total time taken to settle the bets in all rounds, in ns.
+     */
+    private final LongAdder totalSettlementNanos;
+
+    /**
+     * Number of rounds settled.
+     */
+    private final LongAdder roundsSettled;
+
+    /**
+     * Default constructor, creating a sequential engine.
+     */
+    public TableEngine()
+    {
+        this(false);
+    }
+
+    /**
+     * Constructor which creates either a sequential or concurrent engine
+     * which deals from a new deck in every round.
+     *
+     * @param concurrent true to create an engine which is safe to use from
+     * multiple threads.
+     */
+    public TableEngine(final boolean concurrent)
+    {
+        this(concurrent, null);
+    }
+
+    /**
+     * Constructor which creates either a sequential or concurrent engine,
+     * optionally dealing from a multi-deck shoe.
+     *
+     * <p>Initialises the callbacks collection, players, and house hand.</p>
+     *
+     * <p>The deck is not initialised until the first deal to align with
+     * newDeck callback timing (which does not fire until first deal).</p>
+     *
+     * <p>If a shoe is specified it is kept from round to round. At the start
+     * of each round the shoe is changed if its cut card has been reached, and
+     * the new deck callbacks are only fired when the shoe changes.</p>
+     *
+     * @param concurrent true to create an engine which is safe to use from
+     * multiple threads.
+     * @param shoe the shoe to deal from, or null to deal from a new deck in
+     * every round.
+     */
+    public TableEngine(final boolean concurrent, final ShoeDeck shoe)
+    {
+        this(concurrent, shoe, new SettlementEngine());
+    }
+
+    /**
+     * Constructor which creates either a sequential or concurrent engine,
+     * optionally dealing from a multi-deck shoe, which settles bets with the
+     * specified settlement engine. The settlement engine decides how many
+     * players a table needs before their bets are settled in parallel.
+     *
+     * @param concurrent true to create an engine which is safe to use from
+     * multiple threads.
+     * @param shoe the shoe to deal from, or null to deal from a new deck in
+     * every round.
+     * @param settlement settles the bets of all players when the house busts.
+     * @throws NullPointerException if the settlement engine is null
+     */
+    public TableEngine(final boolean concurrent, final ShoeDeck shoe, final SettlementEngine settlement)
+        throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(settlement, "Settlement engine cannot be null");
+        this.concurrent = concurrent;
+        this.shoe = shoe;
+        this.settlement = settlement;
+        this.totalSettlementNanos = new LongAdder();
+        this.roundsSettled = new LongAdder();
+        this.roundSeeds = new ArrayList<>();
+        this.houseHand = new HandImpl();
+        this.callbacks = new CallbackRegistry();
+        if (concurrent)
+        {
+            final StampedLock phaseGuard = new StampedLock();
+            this.players = new ConcurrentHashMap<>();
+            this.playerLocks = new ConcurrentHashMap<>();
+            this.dealsInProgress = ConcurrentHashMap.newKeySet();
+            this.roundLock = phaseGuard.asReadLock();
+            this.settlementLock = phaseGuard.asWriteLock();
+            this.deckLock = new ReentrantLock();
+        }
+        else
+        {
+            this.players = new HashMap<>();
+            this.playerLocks = new HashMap<>();
+            this.dealsInProgress = new HashSet<>();
+            this.roundLock = NoOpLock.INSTANCE;
+            this.settlementLock = NoOpLock.INSTANCE;
+            this.deckLock = NoOpLock.INSTANCE;
+        }
+    }
+
+    /**
+     * @return true if this engine is in concurrent mode.
+     */
+    public boolean isConcurrent()
+    {
+        return concurrent;
+    }
+
+    /**
+     * @return the time taken to settle the bets in the last round, in ns, or
+     * 0 if no round has been settled.
+     */
+    public long getLastSettlementNanos()
+    {
+        return lastSettlementNanos;
+    }
+
+    /**
+     * @return the mean time taken to settle the bets in a round, in ns, or 0
+     * if no round has been settled.
+     */
+    public double getAverageSettlementNanos()
+    {
+        final long rounds = roundsSettled.sum();
+        return rounds == 0 ? 0 : (double) totalSettlementNanos.sum() / rounds;
+    }
+
+    /**
+     * Returns how each deck used so far in the current round was shuffled, in
+     * the order the decks were used. Rebuilding the decks with
+     * {@link DeckSeed#rebuild()} reproduces the cards dealt in the round.
+     * Usually one deck is used, but a deck which runs out part way through a
+     * round is replaced by another.
+     *
+     * <p>An engine dealing from a shoe does not use separate decks, so this
+     * is always empty; see {@link ShoeDeck#getShoeSeed()} and
+     * {@link ShoeDeck#getReshuffles()} instead.</p>
+     *
+     * @return the seeds of the decks used in the current round.
+     */
+    public List<DeckSeed> getRoundSeeds()
+    {
+        deckLock.lock();
+        try
+        {
+            return Collections.unmodifiableList(new ArrayList<>(roundSeeds));
+        }
+        finally
+        {
+            deckLock.unlock();
+        }
+    }
+
+    /**
+     * Registers the specified callback in the local callback registry. A
+     * {@link view.SelectiveGameCallback} is only invoked for the events it
+     * subscribes to. Callbacks may be registered and removed at any time,
+     * including from within a callback.
+     */
+    @Override
+    public void registerCallback(final GameCallback callback)
+    {
+        callbacks.registerCallback(callback);
+    }
+
+    @Override
+    public void removeCallback(final GameCallback callback)
+    {
+        callbacks.removeCallback(callback);
+    }
+
+    /**
+     * Registers the specified callback for the events of a single player, so
+     * it is not invoked for any other player's events.
+     */
+    @Override
+    public void registerPlayerCallback(final String playerId, final GameCallback callback)
+    {
+        callbacks.registerPlayerCallback(playerId, callback);
+    }
+
+    @Override
+    public void removePlayerCallback(final String playerId, final GameCallback callback)
+    {
+        callbacks.removePlayerCallback(playerId, callback);
+    }
+
+    /**
+     * Adds the specified player to the current player map and fires the
+     * add player callbacks if successfully added.
+     *
+     * <p>Players are added and removed under the exclusive side of the round
+     * phase guard, so a bet or deal never sees a player without their
+     * lock.</p>
+     */
+    @Override
+    public void addPlayer(final Player player)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(player, "Player cannot be null");
+
+        settlementLock.lock();
+        try
+        {
+            ExceptionUtil.assertLegalArgument(
+                players.putIfAbsent(player.getId(), player) == null,
+                String.format("Player with ID %s exists in game", player.getId())
+            );
+            playerLocks.put(player.getId(), createLock());
+        }
+        finally
+        {
+            settlementLock.unlock();
+        }
+        fireAddPlayerCallbacks(player);
+    }
+
+    /**
+     * Removes the player with the specified player ID from the player map
+     * and fires the remove player callbacks if successfully removed.
+     *
+     * <p>Held under the exclusive side of the round phase guard, so the
+     * player and their lock are removed together while no bet or deal is in
+     * progress.</p>
+     */
+    @Override
+    public void removePlayer(final String playerId)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(playerId, "Player ID cannot be null");
+
+        final Player removed;
+        settlementLock.lock();
+        try
+        {
+            removed = players.remove(playerId);
+            ExceptionUtil.assertLegalArgument(
+                removed != null,
+                String.format("Player with ID %s does not exist in game", playerId)
+            );
+            playerLocks.remove(playerId);
+        }
+        finally
+        {
+            settlementLock.unlock();
+        }
+        fireRemovePlayerCallbacks(removed);
+    }
+
+    /**
+     * Wraps the player values collection from the map with an unmodifiable
+     * collection and returns it.
+     */
+    @Override
+    public Collection<Player> getAllPlayers()
+    {
+        return Collections.unmodifiableCollection(players.values());
+    }
+
+    /**
+     * Places score bet with the player with the specified player ID and fires
+     * all validation and callbacks.
+     */
+    @Override
+    public void placeBet(final String playerId, final int amount)
+        throws NullPointerException, IllegalArgumentException
+    {
+        placeBet(playerId, amount, player -> new ScoreBetImpl(player, amount));
+    }
+
+    /**
+     * Places suit bet with the player with the specified player ID and fires
+     * all validation and callbacks.
+     */
+    @Override
+    public void placeBet(final String playerId, final int amount, final Suit suit)
+        throws NullPointerException, IllegalArgumentException
+    {
+        placeBet(playerId, amount, player -> new SuitBetImpl(player, amount, suit));
+    }
+
+    /**
+     * Shared implementation of both placeBet methods which validates the bet,
+     * assigns the bet created by the specified factory while holding the
+     * player's lock, and fires the bet updated callbacks.
+     *
+     * @param playerId ID of the player placing the bet.
+     * @param amount amount of the bet.
+     * @param betFactory creates the new bet for the player.
+     */
+    private void placeBet(final String playerId, final int amount, final Function<Player,Bet> betFactory)
+    {
+        final Player player;
+        roundLock.lock();
+        try
+        {
+            player = getExistingPlayer(playerId);
+            final Lock playerLock = playerLocks.get(playerId);
+            playerLock.lock();
+            try
+            {
+                assertNewBetHigher(player, amount);
+                player.assignBet(betFactory.apply(player));
+            }
+            finally
+            {
+                playerLock.unlock();
+            }
+        }
+        finally
+        {
+            roundLock.unlock();
+        }
+        fireBetUpdatedCallbacks(player);
+    }
+
+    /**
+     * Places a batch of bets, such as the bets for a whole table, as a single
+     * operation.
+     *
+     * <p>Every request is validated before any bet is assigned, with the same
+     * rules as {@link #placeBet(String, int)}. If any request is invalid an
+     * exception is thrown and no bets are changed. The bets are assigned
+     * while holding the lock of every player in the batch, so no other bet
+     * for those players can be interleaved.</p>
+     *
+     * <p>A {@link BulkGameCallback} receives a single
+     * {@link BulkGameCallback#betsUpdated(Collection)} for the batch, other
+     * callbacks receive a betUpdated for each player as usual.</p>
+     *
+     * @param requests the bets to place, at most one per player.
+     * @throws NullPointerException if the requests or any request is null
+     * @throws IllegalArgumentException if a player does not exist, appears
+     * more than once or a bet is not higher than the player's existing bet
+     * @throws IllegalStateException if a bet amount is not positive or more
+     * than the player's points
+     */
+    public void placeBets(final Collection<BetRequest> requests)
+        throws NullPointerException, IllegalArgumentException, IllegalStateException
+    {
+        ExceptionUtil.assertNotNull(requests, "Bet requests cannot be null");
+
+        final List<Player> updated = new ArrayList<>(requests.size());
+        roundLock.lock();
+        try
+        {
+            /*
+             * Look up every player first, and take their locks in player ID
+             * order so two overlapping batches cannot deadlock.
+             */
+            final Map<String,Player> batch = new TreeMap<>();
+            for (final BetRequest request : requests)
+            {
+                ExceptionUtil.assertNotNull(request, "Bet request cannot be null");
+                final Player player = getExistingPlayer(request.getPlayerId());
+                ExceptionUtil.assertLegalArgument(
+                    batch.put(player.getId(), player) == null,
+                    String.format("Player with ID %s has more than one bet in batch", player.getId())
+                );
+                updated.add(player);
+            }
+
+            final List<Lock> held = new ArrayList<>(batch.size());
+            try
+            {
+                for (final String playerId : batch.keySet())
+                {
+                    final Lock playerLock = playerLocks.get(playerId);
+                    playerLock.lock();
+                    held.add(playerLock);
+                }
+
+                final List<Bet> bets = new ArrayList<>(requests.size());
+                int i = 0;
+                for (final BetRequest request : requests)
+                {
+                    final Player player = updated.get(i++);
+                    assertNewBetHigher(player, request.getAmount());
+                    bets.add(request.createBet(player));
+                }
+                for (i = 0; i < bets.size(); i++)
+                {
+                    updated.get(i).assignBet(bets.get(i));
+                }
+            }
+            finally
+            {
+                for (int i = held.size() - 1; i >= 0; i--)
+                {
+                    held.get(i).unlock();
+                }
+            }
+        }
+        finally
+        {
+            roundLock.unlock();
+        }
+        fireBetsUpdatedCallbacks(updated);
+    }
+
+    /**
+     * Deals a card to the player with the specified player ID, ensuring they
+     * have not already been dealt a hand yet and that they have made a valid
+     * bet.
+     *
+     * <p>After each card that does not bust the player, an
+     * {@link OddsGameCallback} is also told the player's chance of busting on
+     * their next card.</p>
+     */
+    @Override
+    public void dealPlayer(final String playerId, final int delay)
+        throws NullPointerException, IllegalArgumentException, IllegalStateException
+    {
+        roundLock.lock();
+        try
+        {
+            final Player player = getExistingPlayer(playerId);
+            assertDelayNotNegative(delay);
+            final Lock playerLock = playerLocks.get(playerId);
+            playerLock.lock();
+            try
+            {
+                claimDeal(player);
+                try
+                {
+                    dealUntilBust(player, delay);
+                }
+                finally
+                {
+                    dealsInProgress.remove(playerId);
+                }
+            }
+            finally
+            {
+                playerLock.unlock();
+            }
+        }
+        finally
+        {
+            roundLock.unlock();
+        }
+    }
+
+    /**
+     * Deals to a batch of players one after another, as a single operation.
+     *
+     * <p>Every player is validated and marked as being dealt to before any
+     * card is dealt, with the same rules as {@link #dealPlayer(String, int)}.
+     * If any player is invalid an exception is thrown and nobody is dealt
+     * to. The usual card and bust callbacks are fired for each card, then
+     * every {@link BulkGameCallback} registered for all players receives a
+     * single {@link BulkGameCallback#playersDealt(Collection)} for the
+     * batch.</p>
+     *
+     * @param playerIds the IDs of the players to deal to, in dealing order.
+     * @param delay the delay in milliseconds prior to each card being dealt.
+     * @throws NullPointerException if the IDs or any ID is null
+     * @throws IllegalArgumentException if a player does not exist or appears
+     * more than once, or the delay is negative
+     * @throws IllegalStateException if a player has not placed a bet, has
+     * already been dealt to or is being dealt to
+     */
+    public void dealPlayers(final Collection<String> playerIds, final int delay)
+        throws NullPointerException, IllegalArgumentException, IllegalStateException
+    {
+        ExceptionUtil.assertNotNull(playerIds, "Player IDs cannot be null");
+        assertDelayNotNegative(delay);
+
+        final List<Player> dealt = new ArrayList<>(playerIds.size());
+        roundLock.lock();
+        try
+        {
+            final Set<String> seen = new HashSet<>();
+            for (final String playerId : playerIds)
+            {
+                final Player player = getExistingPlayer(playerId);
+                ExceptionUtil.assertLegalArgument(
+                    seen.add(playerId),
+                    String.format("Player with ID %s appears more than once in batch", playerId)
+                );
+                dealt.add(player);
+            }
+
+            final List<Player> claimed = new ArrayList<>(dealt.size());
+            try
+            {
+                for (final Player player : dealt)
+                {
+                    final Lock playerLock = playerLocks.get(player.getId());
+                    playerLock.lock();
+                    try
+                    {
+                        claimDeal(player);
+                        claimed.add(player);
+                    }
+                    finally
+                    {
+                        playerLock.unlock();
+                    }
+                }
+
+                for (final Player player : dealt)
+                {
+                    final Lock playerLock = playerLocks.get(player.getId());
+                    playerLock.lock();
+                    try
+                    {
+                        dealUntilBust(player, delay);
+                    }
+                    finally
+                    {
+                        playerLock.unlock();
+                    }
+                }
+            }
+            finally
+            {
+                for (final Player player : claimed)
+                {
+                    dealsInProgress.remove(player.getId());
+                }
+            }
+        }
+        finally
+        {
+            roundLock.unlock();
+        }
+        firePlayersDealtCallbacks(dealt);
+    }
+
+    /**
+     * Deals a card to the house hand utilising the same game logic as a player.
+     * Holds the round phase guard exclusively so that no bets or player deals
+     * are in progress while bets are settled.
+     */
+    @Override
+    public void dealHouse(final int delay) throws IllegalArgumentException
+    {
+        assertDelayNotNegative(delay);
+
+        settlementLock.lock();
+        try
+        {
+            dealUntilBust(null, delay);
+        }
+        finally
+        {
+            settlementLock.unlock();
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #dealPlayer(String, int)} which does not
+     * block a thread while waiting between cards.
+     *
+     * <p>The player is validated immediately on the calling thread, throwing
+     * the same exceptions as {@link #dealPlayer(String, int)}. Each card is
+     * then dealt by a task on a timer shared by all engines, which schedules
+     * the next card after the delay, so a few timer threads can pace any
+     * number of deals. Callbacks are invoked on the timer threads.</p>
+     *
+     * <p>Several deals may be in progress at once in concurrent mode. In
+     * sequential mode the engine must not be used again until the returned
+     * future completes.</p>
+     *
+     * @param playerId the id of the player to deal to.
+     * @param delay the delay in milliseconds prior to each card being dealt.
+     * @return a future which completes once the player has bust, or
+     * completes exceptionally if the deal fails.
+     * @throws NullPointerException
+     * @throws IllegalArgumentException
+     * @throws IllegalStateException
+     */
+    public CompletableFuture<Void> dealPlayerAsync(final String playerId, final int delay)
+        throws NullPointerException, IllegalArgumentException, IllegalStateException
+    {
+        roundLock.lock();
+        try
+        {
+            final Player player = getExistingPlayer(playerId);
+            assertDelayNotNegative(delay);
+            final Lock playerLock = playerLocks.get(playerId);
+            playerLock.lock();
+            try
+            {
+                claimDeal(player);
+            }
+            finally
+            {
+                playerLock.unlock();
+            }
+            /*
+             * The round lock stays held until the deal completes, which the
+             * StampedLock view allows to be released from a timer thread.
+             */
+            return new AsyncDeal(player, playerLock, roundLock, delay).start();
+        }
+        catch (final RuntimeException e)
+        {
+            roundLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #dealHouse(int)} which does not block a
+     * thread while waiting between cards.
+     *
+     * <p>The round phase guard is taken exclusively on the calling thread
+     * before returning, so this waits for any player deals still in
+     * progress. The bets are applied before the house bust callbacks are
+     * invoked, and before the returned future completes.</p>
+     *
+     * @param delay the delay in milliseconds prior to each card being dealt.
+     * @return a future which completes once the house has bust and the bets
+     * have been settled.
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public CompletableFuture<Void> dealHouseAsync(final int delay) throws IllegalArgumentException
+    {
+        assertDelayNotNegative(delay);
+
+        settlementLock.lock();
+        return new AsyncDeal(null, NoOpLock.INSTANCE, settlementLock, delay).start();
+    }
+
+    /**
+     * Runs {@link #dealPlayer(String, int)} on its own virtual thread and
+     * returns immediately.
+     *
+     * <p>Unlike {@link #dealPlayerAsync(String, int)} the deal uses the normal
+     * blocking loop, sleeping between cards. On a virtual thread the sleep
+     * parks the thread and frees its carrier, so a small number of carrier
+     * threads can run a very large number of paced deals at once. The engine
+     * only uses {@link java.util.concurrent.locks} locks, which do not pin
+     * virtual threads to their carriers. If virtual threads are not
+     * supported by the running JVM a platform thread is used instead.</p>
+     *
+     * <p>Any exception thrown by {@link #dealPlayer(String, int)}, including
+     * validation failures, completes the returned future exceptionally.
+     * Several deals may run at once only in concurrent mode.</p>
+     *
+     * @param playerId the id of the player to deal to.
+     * @param delay the delay in milliseconds prior to each card being dealt.
+     * @return a future which completes once the player has bust.
+     *
+     * @see util.VirtualThreads
+     */
+    public CompletableFuture<Void> dealPlayerOnVirtualThread(final String playerId, final int delay)
+    {
+        return CompletableFuture.runAsync(() -> dealPlayer(playerId, delay), DealThreads.EXECUTOR);
+    }
+
+    /**
+     * This private implementation attempts to share the deal logic between
+     * both the Player type (with a hand) and the main house hand.
+     *
+     * It's not super pretty to pass a 'null' player here to indicate a house
+     * hand, and I considered for a while using a separate implementation of
+     * PlayerImpl to represent the house. I decided against this because there
+     * are so many methods on Player which are not relevant to the house.
+     *
+     * For now, I think this implementation is reasonable and with extensive
+     * comments hopefully clear.
+     *
+     * @param player If specified, the player to deal the hand to. If not
+     * specified (null) this assumes a deal to the house hand.
+     * @param delayMilliseconds The delay in ms between deals.
+     */
+    private void dealUntilBust(final Player player, final int delayMilliseconds)
+    {
+        /*
+         * Determine whether this is a player or house deal. Assume this is a
+         * house deal if no player has been specified.
+         */
+        final boolean houseDeal = (player == null);
+        final Hand handToDeal = houseDeal ? houseHand : player.getHand();
+
+        boolean dealBust = false;
+        while (!dealBust)
+        {
+            final Card card = drawCard();
+            dealBust = !handToDeal.dealCard(card);
+            wait(delayMilliseconds);
+            fireDealCallbacks(player, card, dealBust);
+        }
+    }
+
+    /**
+     * Fires the callbacks for a card that was dealt to the specified player
+     * (or the house if the player is null), finishing the game if the house
+     * has bust.
+     *
+     * @param player the player dealt to, or null for the house.
+     * @param card the card that was dealt.
+     * @param dealBust whether the card bust the hand.
+     */
+    private void fireDealCallbacks(final Player player, final Card card, final boolean dealBust)
+    {
+        final boolean houseDeal = (player == null);
+        if (dealBust)
+        {
+            if (houseDeal)
+            {
+                /*
+                 * House bust, game is over.
+                 */
+                finishGame();
+                fireHouseBustCallbacks(card);
+            }
+            else
+            {
+                firePlayerBustCallbacks(player, card);
+            }
+        }
+        else
+        {
+            if (houseDeal) {
+                fireHouseCardCallbacks(card);
+            }
+            else
+            {
+                firePlayerCardCallbacks(player, card);
+            }
+        }
+    }
+
+    @Override
+    public void resetAllBetsAndHands()
+    {
+        settlementLock.lock();
+        try
+        {
+            /*
+             * Ensure the deck is reset to null so it is initialised
+             * again once the first player deal occurs (or the shoe is
+             * checked for its cut card).
+             */
+            deck = null;
+            roundSeeds.clear();
+
+            /*
+             * Reset the house hand.
+             */
+            houseHand.reset();
+
+            /*
+             * Reset all bets and hands for all players.
+             */
+            for (final Player player : getAllPlayers())
+            {
+                player.getHand().reset();
+                player.resetBet();
+                fireBetUpdatedCallbacks(player);
+            }
+        }
+        finally
+        {
+            settlementLock.unlock();
+        }
+    }
+
+    /**
+     * Finishes the game by applying all bet results to all players based on the
+     * current and final house hand.
+     *
+     * <p>This is called while holding the round phase guard exclusively, so no
+     * bet or hand can change during settlement. A large table is settled in
+     * parallel, but each player is settled by a single task and settlement
+     * returns only once every bet has been applied, before the house bust
+     * callbacks are fired.</p>
+     */
+    private void finishGame()
+    {
+        final long start = System.nanoTime();
+        settlement.settle(getAllPlayers(), houseHand);
+        final long elapsed = System.nanoTime() - start;
+        lastSettlementNanos = elapsed;
+        totalSettlementNanos.add(elapsed);
+        roundsSettled.increment();
+    }
+
+    /**
+     * Simple private implementation to fire all subscribed remove player callbacks.
+     */
+    private void fireRemovePlayerCallbacks(final Player player)
+    {
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.REMOVE_PLAYER))
+        {
+            cb.removePlayer(player);
+        }
+        for (final GameCallback cb : callbacks.getPlayerListeners(GameEventType.REMOVE_PLAYER, player.getId()))
+        {
+            cb.removePlayer(player);
+        }
+    }
+
+    /**
+     * Simple private implementation to fire all subscribed add player callbacks.
+     */
+    private void fireAddPlayerCallbacks(final Player player)
+    {
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.ADD_PLAYER))
+        {
+            cb.addPlayer(player);
+        }
+        for (final GameCallback cb : callbacks.getPlayerListeners(GameEventType.ADD_PLAYER, player.getId()))
+        {
+            cb.addPlayer(player);
+        }
+    }
+
+    /**
+     * Simple private implementation to fire all subscribed player card callbacks.
+     */
+    private void firePlayerCardCallbacks(final Player player, final Card card)
+    {
+        /*
+         * The bust probability is only worked out once an odds callback is
+         * found, so tables without one pay nothing for it.
+         */
+        double bustProbability = Double.NaN;
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.PLAYER_CARD))
+        {
+            cb.playerCard(player, card);
+            if (cb instanceof OddsGameCallback)
+            {
+                if (Double.isNaN(bustProbability))
+                {
+                    bustProbability = nextCardBustProbability(player);
+                }
+                ((OddsGameCallback) cb).nextCardOdds(player, bustProbability);
+            }
+        }
+        for (final GameCallback cb : callbacks.getPlayerListeners(GameEventType.PLAYER_CARD, player.getId()))
+        {
+            cb.playerCard(player, card);
+            if (cb instanceof OddsGameCallback)
+            {
+                if (Double.isNaN(bustProbability))
+                {
+                    bustProbability = nextCardBustProbability(player);
+                }
+                ((OddsGameCallback) cb).nextCardOdds(player, bustProbability);
+            }
+        }
+    }
+
+    /**
+     * Returns the probability that the next card drawn busts the specified
+     * player, from the composition the deck keeps of its remaining cards. If
+     * the deck has run out the next card comes from a new full deck.
+     */
+    private double nextCardBustProbability(final Player player)
+    {
+        final int score = player.getHand().getScore();
+        deckLock.lock();
+        try
+        {
+            if (shoe != null)
+            {
+                return shoe.getBustProbability(score);
+            }
+            if (deck instanceof ByteDeck && deck.cardsInDeck() > 0)
+            {
+                return ((ByteDeck) deck).getBustProbability(score);
+            }
+            return FULL_DECK.getBustProbability(score);
+        }
+        finally
+        {
+            deckLock.unlock();
+        }
+    }
+
+    /**
+     * Simple private implementation to fire all subscribed player bust callbacks.
+     */
+    private void firePlayerBustCallbacks(final Player player, final Card card)
+    {
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.PLAYER_BUST))
+        {
+            cb.playerBust(player, card);
+        }
+        for (final GameCallback cb : callbacks.getPlayerListeners(GameEventType.PLAYER_BUST, player.getId()))
+        {
+            cb.playerBust(player, card);
+        }
+    }
+
+    /**
+     * Simple private implementation to fire all subscribed house card callbacks.
+     */
+    private void fireHouseCardCallbacks(final Card card)
+    {
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.HOUSE_CARD))
+        {
+            cb.houseCard(houseHand, card);
+        }
+    }
+
+    /**
+     * Simple private implementation to fire all subscribed house bust callbacks.
+     */
+    private void fireHouseBustCallbacks(final Card card)
+    {
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.HOUSE_BUST))
+        {
+            cb.houseBust(houseHand, card);
+        }
+    }
+
+    /**
+     * Simple private implementation to fire all subscribed bet updated callbacks.
+     */
+    private void fireBetUpdatedCallbacks(final Player player) {
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.BET_UPDATED))
+        {
+            cb.betUpdated(player);
+        }
+        for (final GameCallback cb : callbacks.getPlayerListeners(GameEventType.BET_UPDATED, player.getId()))
+        {
+            cb.betUpdated(player);
+        }
+    }
+
+    /**
+     * Fires the bet updated callbacks for a batch of players, invoking a bulk
+     * callback once for the whole batch.
+     */
+    private void fireBetsUpdatedCallbacks(final List<Player> batch)
+    {
+        final Collection<Player> unmodifiable = Collections.unmodifiableList(batch);
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.BET_UPDATED))
+        {
+            if (cb instanceof BulkGameCallback)
+            {
+                ((BulkGameCallback) cb).betsUpdated(unmodifiable);
+            }
+            else
+            {
+                for (final Player player : batch)
+                {
+                    cb.betUpdated(player);
+                }
+            }
+        }
+        for (final Player player : batch)
+        {
+            for (final GameCallback cb : callbacks.getPlayerListeners(GameEventType.BET_UPDATED, player.getId()))
+            {
+                cb.betUpdated(player);
+            }
+        }
+    }
+
+    /**
+     * Fires the players dealt callback for a batch of players on every bulk
+     * callback, whatever events it subscribes to.
+     */
+    private void firePlayersDealtCallbacks(final List<Player> batch)
+    {
+        final Collection<Player> unmodifiable = Collections.unmodifiableList(batch);
+        for (final BulkGameCallback cb : callbacks.getBulkListeners())
+        {
+            cb.playersDealt(unmodifiable);
+        }
+    }
+
+    /**
+     * Simple private implementation to fire all subscribed new deck callbacks.
+     */
+    private void fireNewDeckCallbacks(final Deck newDeck)
+    {
+        for (final GameCallback cb : callbacks.getListeners(GameEventType.NEW_DECK))
+        {
+            cb.newDeck(newDeck);
+        }
+    }
+
+    /**
+     * Removes the next card from the deck, ensuring the deck is ready to deal
+     * first. This is done for every card (not just the first of a deal) so a
+     * deck which runs out part way through a deal is replaced. New decks come
+     * from the shared {@link DeckPool} so they are normally already shuffled,
+     * and are only lazily shuffled when the pool is empty.
+     * A shoe replaces itself, so the callbacks are fired when its number
+     * changes instead.
+     */
+    private Card drawCard()
+    {
+        Deck replacement = null;
+        final Card card;
+        deckLock.lock();
+        try
+        {
+            if (shoe != null)
+            {
+                if (deck == null)
+                {
+                    /*
+                     * First card of the round, a good time to change shoe.
+                     */
+                    shoe.changeShoeIfDue();
+                    deck = shoe;
+                }
+                card = shoe.removeNextCard();
+                if (shoe.getShoeNumber() != shoeNumber)
+                {
+                    shoeNumber = shoe.getShoeNumber();
+                    replacement = shoe;
+                }
+            }
+            else
+            {
+                if (deck == null || deck.cardsInDeck() == 0)
+                {
+                    final ByteDeck fresh = DeckPool.shared().take();
+                    roundSeeds.add(fresh.getDeckSeed());
+                    deck = fresh;
+                    replacement = fresh;
+                }
+                card = deck.removeNextCard();
+            }
+        }
+        finally
+        {
+            deckLock.unlock();
+        }
+        if (replacement != null)
+        {
+            fireNewDeckCallbacks(replacement);
+        }
+        return card;
+    }
+
+    /**
+     * Causes the current thread to wait for the specified number of ms and
+     * takes no action on interrupt.
+     */
+    private void wait(final int delayMilliseconds) {
+        try
+        {
+            Thread.sleep(delayMilliseconds);
+        }
+        catch (final InterruptedException e)
+        {
+            // No action on interrupt
+        }
+    }
+
+    /**
+     * Creates a lock for a new player, which is a no-op unless this engine is
+     * in concurrent mode.
+     */
+    private Lock createLock()
+    {
+        return concurrent ? new ReentrantLock() : NoOpLock.INSTANCE;
+    }
+
+    /*
+     * Ensures a new bet being assigned is higher than the existing player bet.
+     * The javadoc specified 'if, when replacing an existing bet, the bet amount
+     * is not greater the existing bet' but makes no mention of a bet of zero.
+     *
+     * The assumption here is that a bet of zero is invalid, because the default
+     * state of 'no bet' has an amount of zero, and so a new bet is not
+     * greater than the existing bet (of zero).
+     */
+    private void assertNewBetHigher(final Player player, final int amount)
+    {
+        ExceptionUtil.assertLegalArgument(
+            amount > player.getBet().getAmount(),
+            String.format(
+                "Bet for player with ID %s of %d must be higher than existing bet %d",
+                player.getId(), player.getBet().getAmount(), amount
+            )
+        );
+    }
+
+    /**
+     * Ensures the specified player has placed a bet and has not already been
+     * dealt to, and marks the player as being dealt to. Must be called while
+     * holding the player's lock.
+     *
+     * @param player player to claim the deal for.
+     */
+    private void claimDeal(final Player player)
+    {
+        ExceptionUtil.assertLegalState(
+            !player.getBet().equals(Bet.NO_BET),
+            String.format("Player with ID %s has not placed a bet", player.getId())
+        );
+        ExceptionUtil.assertLegalState(
+            player.getHand().isEmpty(),
+            String.format("Player with ID %s has already been dealt to", player.getId())
+        );
+        ExceptionUtil.assertLegalState(
+            dealsInProgress.add(player.getId()),
+            String.format("Player with ID %s is already being dealt to", player.getId())
+        );
+    }
+
+    /**
+     * Ensures the specified delay is not negative otherwise throws an
+     * IllegalArgumentException.
+     *
+     * @param delay delay value to test.
+     */
+    private void assertDelayNotNegative(final int delay)
+    {
+        ExceptionUtil.assertLegalArgument(
+            delay >= 0, "Deplay cannot be negative"
+        );
+    }
+
+    /**
+     * Ensures the specified player ID is not null and exists in the game, and
+     * returns the player. The lookup and the check are a single map access so
+     * a player removed concurrently cannot slip between them.
+     *
+     * @param playerId player ID to look up.
+     * @return the player with the specified ID.
+     */
+    private Player getExistingPlayer(final String playerId)
+    {
+        ExceptionUtil.assertNotNull(playerId, "Player ID cannot be null");
+        final Player player = players.get(playerId);
+        ExceptionUtil.assertLegalArgument(
+            player != null,
+            String.format("Player with ID %s does not exist in game", playerId)
+        );
+        return player;
+    }
+
+
+    /**
+     * A deal which runs as a chain of timer tasks, one per card, rather than
+     * sleeping between cards.
+     *
+     * <p>Each task fires the callbacks for the previous card (after the delay
+     * has passed) and then takes the next card, mirroring the order used by
+     * {@link TableEngine#dealUntilBust(Player, int)}. The phase lock taken by
+     * the caller is released once the deal is complete.</p>
+     */
+    private final class AsyncDeal implements Runnable
+    {
+        private final Player player;
+        private final Hand handToDeal;
+        private final Lock handLock;
+        private final Lock phaseLock;
+        private final int delayMilliseconds;
+        private final CompletableFuture<Void> result;
+        private Card pendingCard;
+        private boolean pendingBust;
+
+        /**
+         * @param player the player to deal to, or null for the house.
+         * @param handLock lock held while the hand is changed.
+         * @param phaseLock already held phase lock to release when done.
+         * @param delayMilliseconds delay in ms between cards.
+         */
+        private AsyncDeal(
+            final Player player, final Lock handLock, final Lock phaseLock, final int delayMilliseconds)
+        {
+            this.player = player;
+            this.handToDeal = player == null ? houseHand : player.getHand();
+            this.handLock = handLock;
+            this.phaseLock = phaseLock;
+            this.delayMilliseconds = delayMilliseconds;
+            this.result = new CompletableFuture<>();
+        }
+
+        /**
+         * Schedules the first card immediately and returns the future.
+         */
+        private CompletableFuture<Void> start()
+        {
+            try
+            {
+                DealTimer.TIMER.execute(this);
+            }
+            catch (final RuntimeException e)
+            {
+                finish(e);
+            }
+            return result;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                handLock.lock();
+                try
+                {
+                    if (pendingCard != null)
+                    {
+                        fireDealCallbacks(player, pendingCard, pendingBust);
+                        if (pendingBust)
+                        {
+                            finish(null);
+                            return;
+                        }
+                    }
+                    pendingCard = drawCard();
+                    pendingBust = !handToDeal.dealCard(pendingCard);
+                }
+                finally
+                {
+                    handLock.unlock();
+                }
+                DealTimer.TIMER.schedule(this, delayMilliseconds, TimeUnit.MILLISECONDS);
+            }
+            catch (final RuntimeException | Error e)
+            {
+                finish(e);
+            }
+        }
+
+        /**
+         * Releases the deal and phase locks and completes the future.
+         *
+         * @param failure the cause of failure, or null on success.
+         */
+        private void finish(final Throwable failure)
+        {
+            if (player != null)
+            {
+                dealsInProgress.remove(player.getId());
+            }
+            phaseLock.unlock();
+            if (failure == null)
+            {
+                result.complete(null);
+            }
+            else
+            {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Holds the thread per task executor shared by all engines for deals run
+     * on their own virtual thread, created on first use.
+     */
+    private static final class DealThreads
+    {
+        private static final ExecutorService EXECUTOR = VirtualThreads.newThreadPerTaskExecutor();
+    }
+
+    /**
+     * Holds the timer shared by all engines for asynchronous deals, created
+     * on first use.
+     */
+    private static final class DealTimer
+    {
+        private static final ScheduledExecutorService TIMER = Executors.newScheduledThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+            runnable -> {
+                final Thread thread = new Thread(runnable, "deal-timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+    }
+
+}
@@ -0,0 +1,472 @@
+package model;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import model.card.Suit;
+import util.ExceptionUtil;
+import view.GameCallback;
+
+/**
+ * Hosts many independent game engines (tables) and schedules them across a
+ * bounded pool of worker threads.
+ *
+ * <p>Each table is pinned to exactly one single threaded worker when it is
+ * created, and every command for that table is routed to its worker. This
+ * means an individual engine is only ever touched by one thread, so the
+ * default {@link GameEngineImpl}, which wraps a {@link TableEngine} in
+ * sequential mode where every lock is a no-op, pays nothing for locking,
+ * while tables on different workers run fully in parallel. Tables share no
+ * state, so throughput scales with the number of workers.</p>
+ *
+ * <p>Many tables share each worker, so a deal with a non-zero delay must not
+ * sleep on it. When a table's engine is a {@link TableEngine} in concurrent
+ * mode, such deals are routed through its asynchronous deal path, which
+ * paces the cards on a timer and frees the worker straight away. Any other
+ * engine can only sleep between cards, stalling every table on the same
+ * worker, so tables which deal with a delay should be created with a
+ * factory for concurrent TableEngines. A house deal still waits on the
+ * worker for that table's player deals in progress to finish.</p>
+ *
+ * <p>All commands return a {@link CompletableFuture} which completes once the
+ * command has run on the table's worker, or completes exceptionally with the
+ * exception thrown by the engine (e.g. an IllegalArgumentException for an
+ * unknown player). Unknown table IDs are rejected immediately on the calling
+ * thread.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public class TableManager implements AutoCloseable
+{
+
+    /**
+     * Worker threads which run table commands. Each is single threaded so
+     * commands for a table run in submission order.
+     */
+    private final ExecutorService[] workers;
+
+    /**
+     * Map of all tables hosted by this manager keyed by table ID.
+     */
+    private final Map<String,Table> tables;
+
+    /**
+     * Supplies a new engine whenever a table is created.
+     */
+    private final Supplier<GameEngine> engineFactory;
+
+    /**
+     * Index of the worker the next new table will be pinned to.
+     */
+    private final AtomicInteger nextWorker;
+
+    /**
+     * Rounds completed by tables which have since been removed, so the
+     * aggregate throughput never goes backwards when a table is removed.
+     */
+    private final LongAdder retiredRounds;
+
+    /**
+     * Time this manager was started, used for aggregate throughput.
+     */
+    private final long startNanos;
+
+    /**
+     * Creates a manager with one worker per available processor, creating a
+     * new {@link GameEngineImpl} for each table.
+     */
+    public TableManager()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a manager with the specified number of workers, creating a
+     * new {@link GameEngineImpl} for each table.
+     *
+     * @param workerCount number of worker threads, must be positive.
+     * @throws IllegalArgumentException
+     */
+    public TableManager(final int workerCount) throws IllegalArgumentException
+    {
+        this(workerCount, GameEngineImpl::new);
+    }
+
+    /**
+     * Creates a manager with the specified number of workers, using the
+     * specified factory to create the engine for each table.
+     *
+     * @param workerCount number of worker threads, must be positive.
+     * @param engineFactory supplies a new engine for each table.
+     * @throws NullPointerException
+     * @throws IllegalArgumentException
+     */
+    public TableManager(final int workerCount, final Supplier<GameEngine> engineFactory)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(engineFactory, "Engine factory cannot be null");
+        ExceptionUtil.assertLegalArgument(
+            workerCount > 0, "Worker count must be positive"
+        );
+
+        this.workers = new ExecutorService[workerCount];
+        for (int i = 0; i < workerCount; i++)
+        {
+            workers[i] = Executors.newSingleThreadExecutor(
+                new TableWorkerThreadFactory(i)
+            );
+        }
+        this.tables = new ConcurrentHashMap<>();
+        this.engineFactory = engineFactory;
+        this.nextWorker = new AtomicInteger();
+        this.retiredRounds = new LongAdder();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Creates a new table with the specified ID and pins it to the next
+     * worker in round robin order. The ID is checked before the engine is
+     * created, so a rejected create uses up neither an engine nor a worker
+     * slot.
+     *
+     * <p>Tables are created and removed under this manager's lock, while
+     * commands look tables up without locking.</p>
+     *
+     * @param tableId unique ID of the table.
+     * @throws NullPointerException if the table ID is null
+     * @throws IllegalArgumentException if a table with the ID already exists
+     */
+    public synchronized void createTable(final String tableId)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(tableId, "Table ID cannot be null");
+        ExceptionUtil.assertLegalArgument(
+            !tables.containsKey(tableId),
+            String.format("Table with ID %s already exists", tableId)
+        );
+
+        final int workerIndex = Math.floorMod(nextWorker.getAndIncrement(), workers.length);
+        tables.put(tableId, new Table(engineFactory.get(), workers[workerIndex]));
+    }
+
+    /**
+     * Removes the table with the specified ID. Commands already submitted to
+     * the table will still run, and the rounds the table has completed,
+     * including any completed by those commands, still count towards the
+     * aggregate throughput.
+     *
+     * @param tableId ID of the table to remove.
+     * @throws NullPointerException
+     * @throws IllegalArgumentException if there is no table with the ID
+     */
+    public synchronized void removeTable(final String tableId)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(tableId, "Table ID cannot be null");
+        final Table table = tables.remove(tableId);
+        ExceptionUtil.assertLegalArgument(
+            table != null,
+            String.format("Table with ID %s does not exist", tableId)
+        );
+        table.retire(retiredRounds);
+    }
+
+    /**
+     * @return an unmodifiable view of the IDs of all tables.
+     */
+    public Set<String> getTableIds()
+    {
+        return Collections.unmodifiableSet(tables.keySet());
+    }
+
+    /**
+     * Registers a callback with the specified table.
+     */
+    public CompletableFuture<Void> registerCallback(final String tableId, final GameCallback callback)
+    {
+        return execute(tableId, engine -> engine.registerCallback(callback));
+    }
+
+    /**
+     * Adds a player to the specified table.
+     */
+    public CompletableFuture<Void> addPlayer(final String tableId, final Player player)
+    {
+        return execute(tableId, engine -> engine.addPlayer(player));
+    }
+
+    /**
+     * Removes a player from the specified table.
+     */
+    public CompletableFuture<Void> removePlayer(final String tableId, final String playerId)
+    {
+        return execute(tableId, engine -> engine.removePlayer(playerId));
+    }
+
+    /**
+     * Places a score bet at the specified table.
+     */
+    public CompletableFuture<Void> placeBet(final String tableId, final String playerId, final int amount)
+    {
+        return execute(tableId, engine -> engine.placeBet(playerId, amount));
+    }
+
+    /**
+     * Places a suit bet at the specified table.
+     */
+    public CompletableFuture<Void> placeBet(
+        final String tableId, final String playerId, final int amount, final Suit suit)
+    {
+        return execute(tableId, engine -> engine.placeBet(playerId, amount, suit));
+    }
+
+    /**
+     * Deals to a player at the specified table. The future completes once
+     * the player has bust.
+     */
+    public CompletableFuture<Void> dealPlayer(final String tableId, final String playerId, final int delay)
+    {
+        return deal(
+            getTable(tableId), delay,
+            engine -> engine.dealPlayer(playerId, delay),
+            engine -> engine.dealPlayerAsync(playerId, delay)
+        );
+    }
+
+    /**
+     * Deals to the house at the specified table, which completes the round
+     * and is counted towards the table's throughput. The future completes
+     * once the bets have been settled.
+     */
+    public CompletableFuture<Void> dealHouse(final String tableId, final int delay)
+    {
+        final Table table = getTable(tableId);
+        return deal(
+            table, delay,
+            engine -> engine.dealHouse(delay),
+            engine -> engine.dealHouseAsync(delay)
+        ).thenRun(() -> table.roundCompleted(retiredRounds));
+    }
+
+    /**
+     * Resets all bets and hands at the specified table.
+     */
+    public CompletableFuture<Void> resetAllBetsAndHands(final String tableId)
+    {
+        return execute(tableId, GameEngine::resetAllBetsAndHands);
+    }
+
+    /**
+     * Runs an arbitrary query or command against the engine of the specified
+     * table on the table's worker. The engine must not be retained or used
+     * outside of the supplied function.
+     *
+     * @param tableId ID of the table.
+     * @param command function to run against the table's engine.
+     * @return a future holding the result of the function.
+     */
+    public <T> CompletableFuture<T> submit(final String tableId, final Function<GameEngine,T> command)
+    {
+        ExceptionUtil.assertNotNull(command, "Command cannot be null");
+        return getTable(tableId).submit(command);
+    }
+
+    /**
+     * @param tableId ID of the table.
+     * @return number of rounds completed by the table.
+     */
+    public long getRoundsCompleted(final String tableId)
+    {
+        return getTable(tableId).rounds.sum();
+    }
+
+    /**
+     * @param tableId ID of the table.
+     * @return rounds completed per second by the table since it was created.
+     */
+    public double getRoundsPerSecond(final String tableId)
+    {
+        final Table table = getTable(tableId);
+        return ratePerSecond(table.rounds.sum(), table.createdNanos);
+    }
+
+    /**
+     * @return rounds completed per second across all tables, including
+     * removed ones, since this manager was started.
+     */
+    public double getAggregateRoundsPerSecond()
+    {
+        long total = retiredRounds.sum();
+        for (final Table table : tables.values())
+        {
+            total += table.rounds.sum();
+        }
+        return ratePerSecond(total, startNanos);
+    }
+
+    /**
+     * Stops accepting commands and waits for all submitted commands to finish.
+     */
+    @Override
+    public void close()
+    {
+        for (final ExecutorService worker : workers)
+        {
+            worker.shutdown();
+        }
+        try
+        {
+            for (final ExecutorService worker : workers)
+            {
+                worker.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the specified command with no result on the specified table.
+     */
+    private CompletableFuture<Void> execute(final String tableId, final Consumer<GameEngine> command)
+    {
+        return getTable(tableId).submit(engine -> {
+            command.accept(engine);
+            return null;
+        });
+    }
+
+    /**
+     * Runs a deal on the table's worker. A deal with a delay on a concurrent
+     * {@link TableEngine} uses its asynchronous path so the worker is not
+     * blocked between cards, and any other deal runs on the worker.
+     */
+    private static CompletableFuture<Void> deal(
+        final Table table, final int delay, final Consumer<GameEngine> blocking,
+        final Function<TableEngine,CompletableFuture<Void>> paced)
+    {
+        return table.submit(engine -> {
+            if (delay > 0 && engine instanceof TableEngine && ((TableEngine) engine).isConcurrent())
+            {
+                return paced.apply((TableEngine) engine);
+            }
+            blocking.accept(engine);
+            return CompletableFuture.<Void>completedFuture(null);
+        }).thenCompose(dealt -> dealt);
+    }
+
+    /**
+     * Looks up the specified table, ensuring it exists.
+     */
+    private Table getTable(final String tableId)
+    {
+        ExceptionUtil.assertNotNull(tableId, "Table ID cannot be null");
+        final Table table = tables.get(tableId);
+        ExceptionUtil.assertLegalArgument(
+            table != null, String.format("Table with ID %s does not exist", tableId)
+        );
+        return table;
+    }
+
+    /**
+     * Calculates a per second rate for the specified count since the
+     * specified start time.
+     */
+    private static double ratePerSecond(final long count, final long sinceNanos)
+    {
+        final long elapsed = System.nanoTime() - sinceNanos;
+        return elapsed <= 0 ? 0 : count / (elapsed / 1e9);
+    }
+
+    /**
+     * A single table: an engine, the worker it is pinned to, and its stats.
+     */
+    private static final class Table
+    {
+        private final GameEngine engine;
+        private final ExecutorService worker;
+        private final LongAdder rounds;
+        private final long createdNanos;
+        private boolean retired;
+
+        private Table(final GameEngine engine, final ExecutorService worker)
+        {
+            this.engine = engine;
+            this.worker = worker;
+            this.rounds = new LongAdder();
+            this.createdNanos = System.nanoTime();
+        }
+
+        /**
+         * Counts a completed round, adding it to the retired rounds instead
+         * once the table has been removed.
+         */
+        private synchronized void roundCompleted(final LongAdder retiredRounds)
+        {
+            if (retired)
+            {
+                retiredRounds.increment();
+            }
+            else
+            {
+                rounds.increment();
+            }
+        }
+
+        /**
+         * Moves the rounds completed so far to the retired rounds. Rounds
+         * completed afterwards go straight to the retired rounds, so none are
+         * lost or counted twice.
+         */
+        private synchronized void retire(final LongAdder retiredRounds)
+        {
+            retired = true;
+            retiredRounds.add(rounds.sum());
+        }
+
+        /**
+         * Runs the command against the engine on this table's worker.
+         */
+        private <T> CompletableFuture<T> submit(final Function<GameEngine,T> command)
+        {
+            return CompletableFuture.supplyAsync(() -> command.apply(engine), worker);
+        }
+    }
+
+    /**
+     * Creates named daemon worker threads so a manager that is not closed
+     * does not prevent the JVM exiting.
+     */
+    private static final class TableWorkerThreadFactory implements ThreadFactory
+    {
+        private final int index;
+
+        private TableWorkerThreadFactory(final int index)
+        {
+            this.index = index;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "table-worker-" + index);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
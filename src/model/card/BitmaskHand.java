@@ -0,0 +1,285 @@
+package model.card;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import util.ExceptionUtil;
+
+/**
+ * Compact Hand implementation which holds the whole hand in two longs, for
+ * keeping very large numbers of hands (e.g. history or simulations).
+ *
+ * <p>The cards held are a bitmask of their {@link Cards} indexes, so each
+ * suit is a run of 13 bits. The order the cards were dealt in is kept as a
+ * nibble per card, holding the card's position among the set bits of the
+ * mask. A hand can never hold more than 11 cards before it would bust, so
+ * the nibbles easily fit in a long.</p>
+ *
+ * <p>The score is looked up from a table of the score of every combination
+ * of ranks in a suit, and suit counts are a {@link Long#bitCount(long)} of
+ * the suit's bits. {@link #getCards()} builds the list of cards each time it
+ * is called, so nothing but the two longs is stored.</p>
+ *
+ * <p>As a bitmask holds each card once, a hand can only hold cards from a
+ * single deck, not a multi-deck {@link ShoeDeck}.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.HandImpl
+ */
+public final class BitmaskHand implements Hand
+{
+
+    /**
+     * Mask of the bits of a single suit, at the lowest suit position.
+     */
+    private static final long SUIT_MASK = (1L << Cards.RANK_COUNT) - 1;
+
+    /**
+     * Bits per deal order entry.
+     */
+    private static final int ORDER_BITS = 4;
+
+    /**
+     * Mask of a single deal order entry.
+     */
+    private static final long ORDER_MASK = (1L << ORDER_BITS) - 1;
+
+    /**
+     * Score of every combination of ranks within a suit, indexed by the
+     * suit's 13 bits.
+     */
+    private static final byte[] SUIT_SCORES = createSuitScores();
+
+    /**
+     * Bitmask of the card indexes held.
+     */
+    private long mask;
+
+    /**
+     * Position among the set bits of the mask of each card, in deal order.
+     */
+    private long order;
+
+    /**
+     * Creates an empty hand.
+     */
+    public BitmaskHand()
+    {
+    }
+
+    /**
+     * Private constructor for a hand with the specified state.
+     */
+    private BitmaskHand(final long mask, final long order)
+    {
+        this.mask = mask;
+        this.order = order;
+    }
+
+    /**
+     * Creates a compact copy of the specified hand, holding the same cards in
+     * the same order.
+     *
+     * @param hand the hand to copy.
+     * @return a new hand.
+     * @throws NullPointerException if the hand is null
+     * @throws IllegalArgumentException if the hand holds the same card twice
+     */
+    public static BitmaskHand copyOf(final Hand hand) throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(hand, "Hand cannot be null");
+        final BitmaskHand copy = new BitmaskHand();
+        for (final Card card : hand.getCards())
+        {
+            copy.add(Cards.indexOf(card));
+        }
+        return copy;
+    }
+
+    /**
+     * Recreates a hand from the values returned by {@link #getMask()} and
+     * {@link #getOrder()}, for example after storing them in arrays.
+     *
+     * @param mask the bitmask of the cards held.
+     * @param order the deal order of the cards held.
+     * @return a new hand.
+     */
+    public static BitmaskHand fromBits(final long mask, final long order)
+    {
+        return new BitmaskHand(mask, order);
+    }
+
+    /**
+     * @return the bitmask of the {@link Cards} indexes held.
+     */
+    public long getMask()
+    {
+        return mask;
+    }
+
+    /**
+     * @return the deal order of the cards held, as nibbles.
+     */
+    public long getOrder()
+    {
+        return order;
+    }
+
+    /**
+     * Deals the specified card into this hand if it would not bust.
+     *
+     * @throws IllegalArgumentException if the hand already holds the card
+     */
+    @Override
+    public boolean dealCard(final Card card) throws IllegalArgumentException
+    {
+        if (getScore() + card.getValue() > BUST_SCORE)
+        {
+            return false;
+        }
+        add(Cards.indexOf(card));
+        return true;
+    }
+
+    /**
+     * Returns whether the hand is empty (has no cards)
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return mask == 0;
+    }
+
+    /**
+     * Returns the number of cards in the hand.
+     */
+    @Override
+    public int getNumberOfCards()
+    {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * Returns the current score of all cards in the hand, as the sum of the
+     * score of each suit's ranks.
+     */
+    @Override
+    public int getScore()
+    {
+        int score = 0;
+        for (int shift = 0; shift < Cards.DECK_SIZE; shift += Cards.RANK_COUNT)
+        {
+            score += SUIT_SCORES[(int) ((mask >>> shift) & SUIT_MASK)];
+        }
+        return score;
+    }
+
+    /**
+     * Returns the number of cards of the specified suit within the hand. A
+     * null suit matches no cards.
+     */
+    @Override
+    public int getSuitCount(final Suit suit)
+    {
+        if (suit == null)
+        {
+            return 0;
+        }
+        return Long.bitCount(mask & (SUIT_MASK << (suit.ordinal() * Cards.RANK_COUNT)));
+    }
+
+    /**
+     * Returns an unmodifiable list of the canonical cards in the hand in deal
+     * order, built when called.
+     */
+    @Override
+    public Collection<Card> getCards()
+    {
+        final int count = getNumberOfCards();
+        final List<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            final int position = (int) ((order >>> (i * ORDER_BITS)) & ORDER_MASK);
+            long remaining = mask;
+            for (int skip = 0; skip < position; skip++)
+            {
+                remaining &= remaining - 1;
+            }
+            cards.add(Cards.of(Long.numberOfTrailingZeros(remaining)));
+        }
+        return Collections.unmodifiableList(cards);
+    }
+
+    /**
+     * Clears the hand of all cards.
+     */
+    @Override
+    public void reset()
+    {
+        mask = 0;
+        order = 0;
+    }
+
+    /**
+     * String representation of this hand, matching {@link HandImpl}.
+     */
+    @Override
+    public String toString()
+    {
+        if (isEmpty())
+        {
+            return "Empty Hand";
+        }
+        return String.format(
+            "Hand of %d cards %s Score: %d", getNumberOfCards(), getCards(), getScore()
+        );
+    }
+
+    /**
+     * Adds the card with the specified index, shifting the deal order
+     * positions of the held cards above it.
+     */
+    private void add(final int index)
+    {
+        final long bit = 1L << index;
+        if ((mask & bit) != 0)
+        {
+            /*
+             * Checked here rather than with ExceptionUtil so the message is
+             * only formatted when thrown, as this is called for every card.
+             */
+            throw new IllegalArgumentException(String.format("Hand already holds %s", Cards.of(index)));
+        }
+        final int count = Long.bitCount(mask);
+        final int position = Long.bitCount(mask & (bit - 1));
+        for (int i = 0; i < count; i++)
+        {
+            final int shift = i * ORDER_BITS;
+            if (((order >>> shift) & ORDER_MASK) >= position)
+            {
+                order += 1L << shift;
+            }
+        }
+        order |= (long) position << (count * ORDER_BITS);
+        mask |= bit;
+    }
+
+    /**
+     * Creates the table of the score of every combination of ranks in a suit.
+     */
+    private static byte[] createSuitScores()
+    {
+        final Rank[] ranks = Rank.values();
+        final byte[] scores = new byte[1 << Cards.RANK_COUNT];
+        for (int bits = 1; bits < scores.length; bits++)
+        {
+            final int lowest = Integer.numberOfTrailingZeros(bits);
+            scores[bits] = (byte) (scores[bits & (bits - 1)] + ranks[lowest].getRankValue());
+        }
+        return scores;
+    }
+
+}
@@ -0,0 +1,268 @@
+package model.card;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import util.ExceptionUtil;
+
+/**
+ * Deck implementation which holds its cards as an array of card codes rather
+ * than a {@link java.util.Stack} of Card objects.
+ *
+ * <p>Each card is stored as a byte holding its index in the {@link Cards}
+ * table, and the deck is shuffled in place with a Fisher-Yates shuffle.
+ * Removing a card decrements an int cursor and looks up the canonical card,
+ * so it takes no lock and allocates nothing. Like {@link DeckImpl} the top of
+ * the deck is the end of the array.</p>
+ *
+ * <p>A deck created with {@link #createLazyShuffledDeck()} is not shuffled
+ * up front. Instead each card is picked uniformly at random from the cards
+ * remaining, by swapping it with the top of the deck before it is removed.
+ * This is exactly the Fisher-Yates shuffle performed one step at a time, so
+ * the order cards are dealt in has the same distribution, but a round which
+ * only draws a few cards only pays for the cards it draws. The engine deals
+ * from decks already shuffled by the {@link DeckPool}, so it only deals from
+ * a lazy deck when the pool is empty and a deck must be built inline.</p>
+ *
+ * <p>A deck created from a {@link ShuffleAlgorithm} and seed has its own
+ * {@link ShuffleSource}, and records a {@link DeckSeed} which rebuilds the
+ * deck in the same order. Other decks use {@link ShuffleSource#THREAD_LOCAL}.
+ * </p>
+ *
+ * <p>This class is not thread safe. The engine already holds its deck lock
+ * while taking a card.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public final class ByteDeck implements Deck
+{
+
+    /**
+     * Codes of the cards in this deck, the next card to be dealt is at
+     * {@code cursor - 1}.
+     */
+    private final byte[] codes;
+
+    /**
+     * Number of cards remaining in the deck.
+     */
+    private int cursor;
+
+    /**
+     * Whether the next card is picked at random when it is removed.
+     */
+    private final boolean lazy;
+
+    /**
+     * Source of the random numbers used to shuffle this deck.
+     */
+    private final ShuffleSource source;
+
+    /**
+     * How this deck was seeded, or null if it was not.
+     */
+    private final DeckSeed deckSeed;
+
+    /**
+     * Composition of the cards remaining in the deck, updated as each card is
+     * removed.
+     */
+    private final DeckComposition remaining;
+
+    /**
+     * Creates and returns a new deck that is shuffled and ready to deal.
+     * @return a new shuffled deck instance.
+     */
+    public static ByteDeck createShuffledDeck()
+    {
+        return shuffled(new ByteDeck(createAllCodes(), false, ShuffleSource.THREAD_LOCAL, null));
+    }
+
+    /**
+     * Creates and returns a new deck that is shuffled with a generator created
+     * from the specified seed, so it can be rebuilt in the same order.
+     * @param algorithm the generator to shuffle with.
+     * @param seed the seed for the generator.
+     * @return a new shuffled deck instance.
+     */
+    public static ByteDeck createShuffledDeck(final ShuffleAlgorithm algorithm, final long seed)
+    {
+        return shuffled(new ByteDeck(
+            createAllCodes(), false, algorithm.create(seed), new DeckSeed(algorithm, seed, false)
+        ));
+    }
+
+    /**
+     * Creates and returns a new deck which picks each card at random as it is
+     * removed, rather than being shuffled up front.
+     * @return a new lazily shuffled deck instance.
+     */
+    public static ByteDeck createLazyShuffledDeck()
+    {
+        return new ByteDeck(createAllCodes(), true, ShuffleSource.THREAD_LOCAL, null);
+    }
+
+    /**
+     * Creates and returns a new deck which picks each card at random as it is
+     * removed, using a generator created from the specified seed, so it can
+     * be rebuilt to deal in the same order.
+     * @param algorithm the generator to pick cards with.
+     * @param seed the seed for the generator.
+     * @return a new lazily shuffled deck instance.
+     */
+    public static ByteDeck createLazyShuffledDeck(final ShuffleAlgorithm algorithm, final long seed)
+    {
+        return new ByteDeck(createAllCodes(), true, algorithm.create(seed), new DeckSeed(algorithm, seed, true));
+    }
+
+    /**
+     * Creates and returns a new deck that is sorted in the same order as
+     * {@link DeckImpl#createSortedDeck()}.
+     * @return a new sorted deck instance.
+     */
+    public static ByteDeck createSortedDeck()
+    {
+        final List<Card> sorted = new ArrayList<>(Cards.all());
+        Collections.sort(sorted);
+        final byte[] codes = new byte[sorted.size()];
+        for (int i = 0; i < codes.length; i++)
+        {
+            codes[i] = (byte) Cards.indexOf(sorted.get(i));
+        }
+        return new ByteDeck(codes, false, ShuffleSource.THREAD_LOCAL, null);
+    }
+
+    /**
+     * Shuffles the specified deck and returns it.
+     */
+    private static ByteDeck shuffled(final ByteDeck deck)
+    {
+        deck.shuffleDeck();
+        return deck;
+    }
+
+    /**
+     * Creates the codes of all cards in card table order.
+     */
+    private static byte[] createAllCodes()
+    {
+        final byte[] codes = new byte[Cards.DECK_SIZE];
+        for (int i = 0; i < codes.length; i++)
+        {
+            codes[i] = (byte) i;
+        }
+        return codes;
+    }
+
+    /**
+     * Private constructor.
+     * @param codes full array of card codes, which becomes owned by the deck.
+     * @param lazy whether to pick each card at random as it is removed.
+     * @param source source of random numbers for shuffling.
+     * @param deckSeed how the source was seeded, or null.
+     */
+    private ByteDeck(final byte[] codes, final boolean lazy, final ShuffleSource source, final DeckSeed deckSeed)
+    {
+        ExceptionUtil.assertNotNull(source, "Shuffle source cannot be null");
+        this.codes = codes;
+        this.cursor = codes.length;
+        this.lazy = lazy;
+        this.source = source;
+        this.deckSeed = deckSeed;
+        this.remaining = DeckComposition.ofCodes(codes, codes.length);
+    }
+
+    /**
+     * @return how this deck was seeded, or null if it was created without a
+     * seed.
+     */
+    public DeckSeed getDeckSeed()
+    {
+        return deckSeed;
+    }
+
+    /**
+     * @return a copy of the composition of the cards remaining in the deck.
+     */
+    public DeckComposition getComposition()
+    {
+        return remaining.copy();
+    }
+
+    /**
+     * @param score the score of a hand.
+     * @return the probability that the next card busts a hand with the score.
+     *
+     * @see DeckComposition#getBustProbability(int)
+     */
+    public double getBustProbability(final int score)
+    {
+        return remaining.getBustProbability(score);
+    }
+
+    /**
+     * Decrements the cursor and returns the canonical card it was pointing at,
+     * removing it from the composition. A lazy deck first swaps a card picked
+     * at random from the remaining cards into the top position.
+     */
+    @Override
+    public Card removeNextCard() throws IllegalStateException
+    {
+        ExceptionUtil.assertLegalState(cursor > 0, "No cards in deck");
+        if (lazy)
+        {
+            final int top = cursor - 1;
+            final int pick = source.nextInt(cursor);
+            final byte swap = codes[top];
+            codes[top] = codes[pick];
+            codes[pick] = swap;
+        }
+        final Card card = Cards.of(codes[--cursor]);
+        remaining.remove(card);
+        return card;
+    }
+
+    /**
+     * Returns the number of cards remaining in the deck.
+     */
+    @Override
+    public int cardsInDeck()
+    {
+        return cursor;
+    }
+
+    /**
+     * Shuffles the remaining cards in place with a Fisher-Yates shuffle. This
+     * has no effect on a lazy deck, as each card removed is already random.
+     */
+    @Override
+    public void shuffleDeck()
+    {
+        if (!lazy)
+        {
+            shuffle(codes, cursor, source);
+        }
+    }
+
+    /**
+     * Shuffles the first cards of an array of card codes in place with a
+     * Fisher-Yates shuffle.
+     *
+     * @param codes the card codes.
+     * @param length the number of codes from the start of the array to
+     * shuffle.
+     * @param source source of random numbers.
+     */
+    static void shuffle(final byte[] codes, final int length, final ShuffleSource source)
+    {
+        for (int i = length - 1; i > 0; i--)
+        {
+            final int j = source.nextInt(i + 1);
+            final byte swap = codes[i];
+            codes[i] = codes[j];
+            codes[j] = swap;
+        }
+    }
+
+}
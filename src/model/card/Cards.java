@@ -0,0 +1,137 @@
+package model.card;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import util.ExceptionUtil;
+
+/**
+ * Holds the single canonical instance of each of the 52 cards.
+ *
+ * <p>Cards are immutable, so there is no need to create new {@link CardImpl}
+ * instances for every deck. Decks and hands only ever hold the instances
+ * from this table, so two cards from the engine can be compared by identity
+ * as well as with {@link Card#equals(Object)}.</p>
+ *
+ * <p>The table is an array indexed by {@link #indexOf(Suit, Rank)}, which
+ * orders the cards by suit and then by rank, matching the natural order of
+ * the two enums.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public final class Cards
+{
+
+    /**
+     * Number of ranks in each suit.
+     */
+    public static final int RANK_COUNT = Rank.values().length;
+
+    /**
+     * Number of cards in a standard deck.
+     */
+    public static final int DECK_SIZE = Suit.values().length * RANK_COUNT;
+
+    /**
+     * The canonical card instances indexed by {@link #indexOf(Suit, Rank)}.
+     */
+    private static final Card[] TABLE = createTable();
+
+    /**
+     * Unmodifiable view of the table, in index order.
+     */
+    private static final List<Card> ALL = Collections.unmodifiableList(Arrays.asList(TABLE));
+
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private Cards()
+    {
+    }
+
+    /**
+     * Returns the canonical card with the specified suit and rank.
+     *
+     * @param suit the suit of the card.
+     * @param rank the rank of the card.
+     * @return the canonical card instance.
+     * @throws NullPointerException if the suit or rank is null
+     */
+    public static Card of(final Suit suit, final Rank rank) throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(suit, "Suit cannot be null");
+        ExceptionUtil.assertNotNull(rank, "Rank cannot be null");
+        return TABLE[indexOf(suit, rank)];
+    }
+
+    /**
+     * Returns the canonical card at the specified index in the table.
+     *
+     * @param index the index of the card, from 0 to {@link #DECK_SIZE} - 1.
+     * @return the canonical card instance.
+     * @throws ArrayIndexOutOfBoundsException if the index is out of range
+     */
+    public static Card of(final int index)
+    {
+        return TABLE[index];
+    }
+
+    /**
+     * Returns the canonical instance of a card equal to the specified card,
+     * which may be the same instance.
+     *
+     * @param card any card.
+     * @return the canonical card with the same suit and rank.
+     * @throws NullPointerException if the card is null
+     */
+    public static Card canonical(final Card card) throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(card, "Card cannot be null");
+        return TABLE[indexOf(card.getSuit(), card.getRank())];
+    }
+
+    /**
+     * @param suit the suit of the card.
+     * @param rank the rank of the card.
+     * @return the index of the card with the suit and rank in the table.
+     */
+    public static int indexOf(final Suit suit, final Rank rank)
+    {
+        return suit.ordinal() * RANK_COUNT + rank.ordinal();
+    }
+
+    /**
+     * @param card any card.
+     * @return the index of the card in the table.
+     */
+    public static int indexOf(final Card card)
+    {
+        return indexOf(card.getSuit(), card.getRank());
+    }
+
+    /**
+     * @return all 52 canonical cards in index order, as an unmodifiable list.
+     */
+    public static List<Card> all()
+    {
+        return ALL;
+    }
+
+    /**
+     * Creates the one and only instance of every card.
+     */
+    private static Card[] createTable()
+    {
+        final Card[] table = new Card[DECK_SIZE];
+        for (final Suit suit : Suit.values())
+        {
+            for (final Rank rank : Rank.values())
+            {
+                table[indexOf(suit, rank)] = new CardImpl(suit, rank);
+            }
+        }
+        return table;
+    }
+
+}
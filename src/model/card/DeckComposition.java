@@ -0,0 +1,239 @@
+package model.card;
+
+import java.util.Arrays;
+
+import util.ExceptionUtil;
+
+/**
+ * The number of each card remaining in a deck or shoe, without their order.
+ *
+ * <p>Counts are kept per card (indexed as in {@link Cards}), with running
+ * totals per rank and per suit, so any of them can be read in constant
+ * time. A composition is mutable, so it can follow a deck as cards are
+ * removed, and is not thread safe.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.odds.OddsCalculator
+ */
+public final class DeckComposition
+{
+
+    private static final Rank[] RANKS = Rank.values();
+    private static final Suit[] SUITS = Suit.values();
+
+    /**
+     * Number of each card, indexed by {@link Cards#indexOf(Card)}.
+     */
+    private final int[] cardCounts;
+
+    /**
+     * Number of cards of each rank, indexed by rank ordinal.
+     */
+    private final int[] rankCounts;
+
+    /**
+     * Number of cards of each suit, indexed by suit ordinal.
+     */
+    private final int[] suitCounts;
+
+    /**
+     * Total number of cards.
+     */
+    private int size;
+
+    /**
+     * Private constructor for the specified card counts.
+     */
+    private DeckComposition(final int[] cardCounts)
+    {
+        this.cardCounts = cardCounts;
+        this.rankCounts = new int[RANKS.length];
+        this.suitCounts = new int[SUITS.length];
+        for (int index = 0; index < cardCounts.length; index++)
+        {
+            rankCounts[index % Cards.RANK_COUNT] += cardCounts[index];
+            suitCounts[index / Cards.RANK_COUNT] += cardCounts[index];
+            size += cardCounts[index];
+        }
+    }
+
+    /**
+     * @return the composition of a full standard deck.
+     */
+    public static DeckComposition fullDeck()
+    {
+        return ofDecks(1);
+    }
+
+    /**
+     * @param deckCount number of standard decks.
+     * @return the composition of a full shoe of the specified number of
+     * decks.
+     * @throws IllegalArgumentException if the deck count is not positive
+     */
+    public static DeckComposition ofDecks(final int deckCount) throws IllegalArgumentException
+    {
+        ExceptionUtil.assertLegalArgument(deckCount > 0, "Deck count must be positive");
+        final int[] counts = new int[Cards.DECK_SIZE];
+        Arrays.fill(counts, deckCount);
+        return new DeckComposition(counts);
+    }
+
+    /**
+     * @param codes card codes, each an index in {@link Cards}.
+     * @param length number of codes from the start of the array to count.
+     * @return the composition of the cards with the codes.
+     */
+    static DeckComposition ofCodes(final byte[] codes, final int length)
+    {
+        final int[] counts = new int[Cards.DECK_SIZE];
+        for (int i = 0; i < length; i++)
+        {
+            counts[codes[i]]++;
+        }
+        return new DeckComposition(counts);
+    }
+
+    /**
+     * Resets the composition to that of a full shoe of the specified number
+     * of decks, without allocating, so a deck can reuse its composition when
+     * it is refilled.
+     *
+     * @param deckCount number of standard decks.
+     */
+    void refill(final int deckCount)
+    {
+        Arrays.fill(cardCounts, deckCount);
+        Arrays.fill(rankCounts, deckCount * SUITS.length);
+        Arrays.fill(suitCounts, deckCount * RANKS.length);
+        size = deckCount * Cards.DECK_SIZE;
+    }
+
+    /**
+     * @return a new composition with the same counts as this one.
+     */
+    public DeckComposition copy()
+    {
+        return new DeckComposition(cardCounts.clone());
+    }
+
+    /**
+     * Removes one of the specified card.
+     *
+     * @param card the card to remove.
+     * @throws NullPointerException if the card is null
+     * @throws IllegalStateException if there are none of the card left
+     */
+    public void remove(final Card card) throws NullPointerException, IllegalStateException
+    {
+        ExceptionUtil.assertNotNull(card, "Card cannot be null");
+        final int index = Cards.indexOf(card);
+        ExceptionUtil.assertLegalState(cardCounts[index] > 0, "No cards of this kind remaining");
+        cardCounts[index]--;
+        rankCounts[card.getRank().ordinal()]--;
+        suitCounts[card.getSuit().ordinal()]--;
+        size--;
+    }
+
+    /**
+     * @return the total number of cards.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param suit the suit of the card.
+     * @param rank the rank of the card.
+     * @return the number of cards with the suit and rank.
+     */
+    public int getCount(final Suit suit, final Rank rank)
+    {
+        return cardCounts[Cards.indexOf(suit, rank)];
+    }
+
+    /**
+     * @param rank a rank.
+     * @return the number of cards of the rank.
+     */
+    public int getRankCount(final Rank rank)
+    {
+        return rankCounts[rank.ordinal()];
+    }
+
+    /**
+     * @param suit a suit.
+     * @return the number of cards of the suit.
+     */
+    public int getSuitCount(final Suit suit)
+    {
+        return suitCounts[suit.ordinal()];
+    }
+
+    /**
+     * Returns the probability that the next card drawn at random would bust
+     * a hand with the specified score. This reads the rank counts only, so
+     * takes constant time and allocates nothing.
+     *
+     * @param score the score of the hand.
+     * @return the probability the next card busts the hand, or 0 if there
+     * are no cards.
+     */
+    public double getBustProbability(final int score)
+    {
+        if (size == 0)
+        {
+            return 0;
+        }
+        final int headroom = Hand.BUST_SCORE - score;
+        int busting = 0;
+        for (int ordinal = 0; ordinal < RANKS.length; ordinal++)
+        {
+            if (RANKS[ordinal].getRankValue() > headroom)
+            {
+                busting += rankCounts[ordinal];
+            }
+        }
+        return (double) busting / size;
+    }
+
+    /**
+     * Compares the card counts of two compositions.
+     */
+    @Override
+    public boolean equals(final Object other)
+    {
+        return other instanceof DeckComposition
+            && Arrays.equals(cardCounts, ((DeckComposition) other).cardCounts);
+    }
+
+    /**
+     * Hash code of the card counts.
+     */
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(cardCounts);
+    }
+
+    /**
+     * String representation of the composition, as the count of each rank.
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder(String.format("Composition of %d cards [", size));
+        for (final Rank rank : RANKS)
+        {
+            if (rank.ordinal() > 0)
+            {
+                builder.append(", ");
+            }
+            builder.append(rank).append('=').append(rankCounts[rank.ordinal()]);
+        }
+        return builder.append(']').toString();
+    }
+
+}
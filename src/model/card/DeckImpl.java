@@ -2,6 +2,7 @@ package model.card;
 
 import java.util.Collections;
 import java.util.Stack;
+import java.util.concurrent.ThreadLocalRandom;
 
 import util.ExceptionUtil;
 
@@ -38,19 +39,14 @@ public class DeckImpl implements Deck
 	}
 	
 	/**
-	 * Creates a Stack of the full 52 card standard deck.
+	 * Creates a Stack of the full 52 card standard deck, using the canonical
+	 * card instances rather than creating new cards for every deck.
 	 * @return
 	 */
 	private static Stack<Card> createStackOfAllCards() 
 	{
 	    final Stack<Card> all = new Stack<>();
-	    for (final Suit suit : Suit.values()) 
-	    {
-	        for (final Rank rank : Rank.values()) 
-	        {
-	            all.add(new CardImpl(suit, rank));
-	        }
-	    }
+	    all.addAll(Cards.all());
 	    return all;
 	}
 	
@@ -88,12 +84,13 @@ public class DeckImpl implements Deck
 	}
 
 	/**
-	 * Shuffles the deck in place.
+	 * Shuffles the deck in place, using the calling thread's random number
+	 * generator rather than the one shared by all threads.
 	 */
 	@Override
 	public void shuffleDeck()
 	{
-	    Collections.shuffle(cards);
+	    Collections.shuffle(cards, ThreadLocalRandom.current());
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package model.card;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import util.ExceptionUtil;
+
+/**
+ * A bounded pool of ready to deal, fully shuffled decks, which is kept full
+ * by a low priority background thread.
+ *
+ * <p>Taking a deck from the pool is a single queue poll, so the allocation
+ * and shuffle of a new deck happen off the thread which is dealing. If the
+ * pool is empty a deck is built inline instead, using
+ * {@link ByteDeck#createLazyShuffledDeck()} which is the cheapest deck to
+ * create. Hits and misses are counted so the pool can be sized.</p>
+ *
+ * <p>A single {@link #shared()} pool is used by every table engine. The
+ * background thread is a daemon and is started on first use.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public final class DeckPool implements AutoCloseable
+{
+
+    /**
+     * Capacity of the shared pool.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Decks ready to deal.
+     */
+    private final BlockingQueue<ByteDeck> ready;
+
+    /**
+     * Algorithm used to shuffle the decks.
+     */
+    private final ShuffleAlgorithm algorithm;
+
+    /**
+     * Number of decks taken from the pool.
+     */
+    private final LongAdder hits;
+
+    /**
+     * Number of decks built inline because the pool was empty.
+     */
+    private final LongAdder misses;
+
+    /**
+     * Background thread which refills the pool.
+     */
+    private final Thread refiller;
+
+    /**
+     * Creates a pool with the specified capacity, whose decks are shuffled
+     * with {@link ShuffleAlgorithm#SPLITTABLE_RANDOM}, and starts its
+     * background thread.
+     *
+     * @param capacity maximum number of decks held ready.
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public DeckPool(final int capacity) throws IllegalArgumentException
+    {
+        this(capacity, ShuffleAlgorithm.SPLITTABLE_RANDOM);
+    }
+
+    /**
+     * Creates a pool with the specified capacity and shuffle algorithm and
+     * starts its background thread. Every deck is shuffled from its own new
+     * seed, recorded in its {@link ByteDeck#getDeckSeed()}.
+     *
+     * @param capacity maximum number of decks held ready.
+     * @param algorithm algorithm used to shuffle the decks.
+     * @throws NullPointerException if the algorithm is null
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public DeckPool(final int capacity, final ShuffleAlgorithm algorithm)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertLegalArgument(capacity > 0, "Capacity must be positive");
+        ExceptionUtil.assertNotNull(algorithm, "Algorithm cannot be null");
+        this.algorithm = algorithm;
+        this.ready = new ArrayBlockingQueue<>(capacity);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.refiller = new Thread(this::refill, "deck-pool");
+        this.refiller.setDaemon(true);
+        this.refiller.setPriority(Thread.MIN_PRIORITY);
+        this.refiller.start();
+    }
+
+    /**
+     * @return the pool shared by all table engines.
+     */
+    public static DeckPool shared()
+    {
+        return SharedPool.POOL;
+    }
+
+    /**
+     * Takes a shuffled deck from the pool, or builds one inline if the pool
+     * is empty. Never blocks.
+     *
+     * @return a new seeded deck which is ready to deal.
+     */
+    public ByteDeck take()
+    {
+        final ByteDeck deck = ready.poll();
+        if (deck != null)
+        {
+            hits.increment();
+            return deck;
+        }
+        misses.increment();
+        return ByteDeck.createLazyShuffledDeck(algorithm, algorithm.newSeed());
+    }
+
+    /**
+     * @return the number of decks taken from the pool.
+     */
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of decks built inline because the pool was empty.
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of decks currently ready in the pool.
+     */
+    public int getReadyCount()
+    {
+        return ready.size();
+    }
+
+    /**
+     * Stops the background thread. Decks already in the pool can still be
+     * taken, after which every deck is built inline.
+     */
+    @Override
+    public void close()
+    {
+        refiller.interrupt();
+    }
+
+    /**
+     * Body of the background thread, which builds decks until interrupted,
+     * blocking while the pool is full.
+     */
+    private void refill()
+    {
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                ready.put(ByteDeck.createShuffledDeck(algorithm, algorithm.newSeed()));
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            // Pool closed
+        }
+    }
+
+    /**
+     * Holds the shared pool, created on first use.
+     */
+    private static final class SharedPool
+    {
+        private static final DeckPool POOL = new DeckPool(DEFAULT_CAPACITY);
+    }
+
+}
@@ -0,0 +1,94 @@
+package model.card;
+
+import util.ExceptionUtil;
+
+/**
+ * Records how a seeded {@link ByteDeck} was shuffled, so the same deck can be
+ * rebuilt later, for example to check a disputed round.
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.ByteDeck#getDeckSeed()
+ */
+public final class DeckSeed
+{
+
+    /**
+     * The algorithm used to shuffle the deck.
+     */
+    private final ShuffleAlgorithm algorithm;
+
+    /**
+     * The seed the shuffle source was created from.
+     */
+    private final long seed;
+
+    /**
+     * Whether the deck was lazily shuffled.
+     */
+    private final boolean lazy;
+
+    /**
+     * Creates a record of a deck's shuffle.
+     *
+     * @param algorithm the algorithm used to shuffle the deck.
+     * @param seed the seed the shuffle source was created from.
+     * @param lazy whether the deck was lazily shuffled.
+     * @throws NullPointerException if the algorithm is null
+     */
+    public DeckSeed(final ShuffleAlgorithm algorithm, final long seed, final boolean lazy)
+        throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(algorithm, "Algorithm cannot be null");
+        this.algorithm = algorithm;
+        this.seed = seed;
+        this.lazy = lazy;
+    }
+
+    /**
+     * @return the algorithm used to shuffle the deck.
+     */
+    public ShuffleAlgorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * @return the seed the shuffle source was created from.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * @return whether the deck was lazily shuffled.
+     */
+    public boolean isLazy()
+    {
+        return lazy;
+    }
+
+    /**
+     * Rebuilds the deck, which deals the same cards in the same order as the
+     * original deck did.
+     *
+     * @return a new deck.
+     */
+    public ByteDeck rebuild()
+    {
+        return lazy
+            ? ByteDeck.createLazyShuffledDeck(algorithm, seed)
+            : ByteDeck.createShuffledDeck(algorithm, seed);
+    }
+
+    /**
+     * Returns a string representation of this record.
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s%s seed %d", lazy ? "lazy " : "", algorithm, seed);
+    }
+
+}
@@ -1,6 +1,7 @@
 package model.card;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -17,29 +18,45 @@ public class HandImpl implements Hand
      */
     private final Collection<Card> cards;
 
+    /**
+     * Running score of the cards in this hand, updated as cards are dealt so
+     * the score never needs to be recalculated.
+     */
+    private int score;
+
+    /**
+     * Running count of the cards of each suit in this hand, indexed by the
+     * suit ordinal.
+     */
+    private final int[] suitCounts;
+
     /**
      * Default zero-argument constructor as per the specification.
      */
     public HandImpl() 
     {
         this.cards = new ArrayList<>();
+        this.suitCounts = new int[Suit.values().length];
     }
 
     /**
      * Deals the specified card into this hand.
      * Compares the value of current hand plus the new card to determine whether
      * this hand has busted or not. The card is only added to the hand if it
-     * doesn't bust. 
+     * doesn't bust. The canonical instance of the card is held, so a hand
+     * only ever contains cards from {@link Cards}.
      * 
      * @return true if the card was successfully added to the hand, bust otherwise.
      */
 	@Override
 	public boolean dealCard(final Card card) 
 	{
-	    final int scoreAfterDeal = getScore() + card.getValue();
+	    final int scoreAfterDeal = score + card.getValue();
 	    if (scoreAfterDeal <= BUST_SCORE)
 	    {
-	        cards.add(card);
+	        cards.add(Cards.canonical(card));
+	        score = scoreAfterDeal;
+	        suitCounts[card.getSuit().ordinal()]++;
 	        return true;
 	    }
 	    return false;
@@ -64,33 +81,23 @@ public class HandImpl implements Hand
 	}
 
 	/**
-	 * Returns the current score of all cards in the hand.
+	 * Returns the current score of all cards in the hand, which is kept up to
+	 * date as cards are dealt.
 	 */
 	@Override
 	public int getScore() 
 	{
-	    int result = 0;
-	    for (final Card card : cards) 
-	    {
-	        result += card.getRank().getRankValue();
-	    }
-	    return result;
+	    return score;
 	}
 
 	/**
-	 * Returns the number of cards of the specified suit within the hand.
+	 * Returns the number of cards of the specified suit within the hand, which
+	 * is kept up to date as cards are dealt. A null suit matches no cards.
 	 */
 	@Override
 	public int getSuitCount(final Suit suit) 
 	{
-	    int result = 0;
-	    for (final Card card : cards)
-	    {
-	        if (card.getSuit().equals(suit)) {
-	            result++;
-	        }
-	    }
-	    return result;
+	    return suit == null ? 0 : suitCounts[suit.ordinal()];
 	}
 
 	/**
@@ -109,6 +116,8 @@ public class HandImpl implements Hand
 	public void reset() 
 	{
 		cards.clear();
+		score = 0;
+		Arrays.fill(suitCounts, 0);
 	}
 	
 	/**
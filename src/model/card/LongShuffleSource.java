@@ -0,0 +1,63 @@
+package model.card;
+
+/**
+ * Base class of the shuffle sources built on a generator of 64 random bits,
+ * which holds the code they share: the SplitMix64 mixing function used to
+ * seed or step them, and the unbiased bounded draw.
+ *
+ * <p>Subclasses only provide {@link #nextLong()}. Each instance belongs to a
+ * single deck, task or thread, so it needs no locking.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.XoshiroShuffleSource
+ */
+public abstract class LongShuffleSource implements ShuffleSource
+{
+
+    /**
+     * Increment of the SplitMix64 generator (the golden gamma).
+     */
+    protected static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Returns an unbiased random number below the bound, rejecting the few
+     * values which would favour low numbers (as {@link java.util.Random}
+     * does).
+     */
+    @Override
+    public final int nextInt(final int bound)
+    {
+        final int mask = bound - 1;
+        int r = (int) (nextLong() >>> 33);
+        if ((bound & mask) == 0)
+        {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + mask < 0; u = (int) (nextLong() >>> 33))
+        {
+            // Rejected, try again
+        }
+        return r;
+    }
+
+    /**
+     * @return the next 64 random bits.
+     */
+    public abstract long nextLong();
+
+    /**
+     * The SplitMix64 output function.
+     *
+     * @param value the value to mix.
+     * @return the mixed value.
+     */
+    protected static long mix(final long value)
+    {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,438 @@
+package model.card;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import util.ExceptionUtil;
+
+/**
+ * Deck implementation for a shoe of several standard decks shuffled together,
+ * as used at a real table, which is kept from round to round rather than
+ * being replaced every round.
+ *
+ * <p>The shoe is an array of card codes (as in {@link ByteDeck}) with a cut
+ * card placed a number of cards from the end. Once the cut card is reached a
+ * replacement shoe is shuffled on a background thread. The replacement is
+ * swapped in by {@link #changeShoeIfDue()}, which the engine calls at the
+ * start of each round, once the background shuffle has finished, so a deal
+ * never waits for a shuffle. Only if the current shoe runs out completely,
+ * which the cut card is there to prevent, does removing a card wait for the
+ * replacement.</p>
+ *
+ * <p>Every shoe is shuffled with a generator from the shoe's
+ * {@link ShuffleAlgorithm}, created from a new seed which is recorded. A shoe
+ * created with {@link #ShoeDeck(int, int, ShuffleAlgorithm, long)} from a
+ * recorded seed starts with the same cards in the same order. A reshuffle
+ * of the remaining cards by {@link #shuffleDeck()} is also shuffled from a
+ * new seed, which is recorded with the number of cards dealt before it (see
+ * {@link #getReshuffles()}), so it can be replayed with
+ * {@link #shuffleDeck(long)}.</p>
+ *
+ * <p>Each shoe dealt from has a number, starting at 1, so the engine can
+ * tell when the shoe has changed. This class is not thread safe apart from
+ * the background shuffle. The engine holds its deck lock while using it.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public final class ShoeDeck implements Deck
+{
+
+    /**
+     * Default number of decks in a shoe.
+     */
+    public static final int DEFAULT_DECK_COUNT = 6;
+
+    /**
+     * Composition of a full deck, which is never changed.
+     */
+    private static final DeckComposition FULL_DECK = DeckComposition.fullDeck();
+
+    /**
+     * Number of decks in the shoe.
+     */
+    private final int deckCount;
+
+    /**
+     * Number of cards left in the shoe when the cut card is reached.
+     */
+    private final int cutCard;
+
+    /**
+     * Algorithm used to shuffle each shoe.
+     */
+    private final ShuffleAlgorithm algorithm;
+
+    /**
+     * Codes of the cards in the current shoe, the next card to be dealt is at
+     * {@code cursor - 1}.
+     */
+    private byte[] codes;
+
+    /**
+     * Number of cards remaining in the current shoe.
+     */
+    private int cursor;
+
+    /**
+     * Composition of the cards remaining in the current shoe, updated as each
+     * card is removed and refilled when the shoe is changed.
+     */
+    private final DeckComposition remaining;
+
+    /**
+     * Number of the current shoe.
+     */
+    private long shoeNumber;
+
+    /**
+     * Seed the current shoe was shuffled from.
+     */
+    private long shoeSeed;
+
+    /**
+     * The reshuffles of the current shoe, in order.
+     */
+    private final List<Reshuffle> reshuffles;
+
+    /**
+     * The replacement shoe being shuffled, or null if the cut card has not
+     * been reached.
+     */
+    private CompletableFuture<byte[]> replacement;
+
+    /**
+     * Seed the replacement shoe is being shuffled from.
+     */
+    private long replacementSeed;
+
+    /**
+     * Creates a shoe of the default number of decks with the cut card placed
+     * a quarter of the way from the end.
+     */
+    public ShoeDeck()
+    {
+        this(DEFAULT_DECK_COUNT, DEFAULT_DECK_COUNT * Cards.DECK_SIZE / 4);
+    }
+
+    /**
+     * Creates and shuffles a shoe using
+     * {@link ShuffleAlgorithm#SPLITTABLE_RANDOM}.
+     *
+     * @param deckCount number of decks in the shoe, typically 6 or 8.
+     * @param cutCard number of cards from the end of the shoe to place the
+     * cut card.
+     * @throws IllegalArgumentException if there is not at least one deck or
+     * the cut card is not within the shoe
+     */
+    public ShoeDeck(final int deckCount, final int cutCard) throws IllegalArgumentException
+    {
+        this(deckCount, cutCard, ShuffleAlgorithm.SPLITTABLE_RANDOM);
+    }
+
+    /**
+     * Creates and shuffles a shoe using the specified algorithm.
+     *
+     * @param deckCount number of decks in the shoe, typically 6 or 8.
+     * @param cutCard number of cards from the end of the shoe to place the
+     * cut card.
+     * @param algorithm algorithm used to shuffle each shoe.
+     * @throws NullPointerException if the algorithm is null
+     * @throws IllegalArgumentException if there is not at least one deck or
+     * the cut card is not within the shoe
+     */
+    public ShoeDeck(final int deckCount, final int cutCard, final ShuffleAlgorithm algorithm)
+        throws NullPointerException, IllegalArgumentException
+    {
+        this(deckCount, cutCard, algorithm, newSeed(algorithm));
+    }
+
+    /**
+     * Creates a shoe whose first shoe is shuffled from the specified seed,
+     * which rebuilds a recorded shoe.
+     *
+     * @param deckCount number of decks in the shoe, typically 6 or 8.
+     * @param cutCard number of cards from the end of the shoe to place the
+     * cut card.
+     * @param algorithm algorithm used to shuffle each shoe.
+     * @param seed seed to shuffle the first shoe from.
+     * @throws NullPointerException if the algorithm is null
+     * @throws IllegalArgumentException if there is not at least one deck or
+     * the cut card is not within the shoe
+     *
+     * @see #getShoeSeed()
+     */
+    public ShoeDeck(final int deckCount, final int cutCard, final ShuffleAlgorithm algorithm, final long seed)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertLegalArgument(deckCount > 0, "Shoe must have at least one deck");
+        ExceptionUtil.assertLegalArgument(
+            cutCard >= 0 && cutCard < deckCount * Cards.DECK_SIZE, "Cut card must be within the shoe"
+        );
+        this.deckCount = deckCount;
+        this.cutCard = cutCard;
+        this.algorithm = algorithm;
+        this.codes = createShuffledShoe(deckCount, algorithm.create(seed));
+        this.cursor = codes.length;
+        this.remaining = DeckComposition.ofDecks(deckCount);
+        this.shoeNumber = 1;
+        this.shoeSeed = seed;
+        this.reshuffles = new ArrayList<>();
+    }
+
+    /**
+     * Removes the next card from the current shoe, starting to shuffle a
+     * replacement if this reaches the cut card. If the current shoe is empty
+     * the replacement is swapped in first.
+     */
+    @Override
+    public Card removeNextCard()
+    {
+        if (cursor == 0)
+        {
+            startReplacement();
+            swapIn(replacement.join());
+        }
+        final Card card = Cards.of(codes[--cursor]);
+        remaining.remove(card);
+        if (cursor <= cutCard)
+        {
+            startReplacement();
+        }
+        return card;
+    }
+
+    /**
+     * Returns the number of cards remaining in the current shoe.
+     */
+    @Override
+    public int cardsInDeck()
+    {
+        return cursor;
+    }
+
+    /**
+     * Shuffles the cards remaining in the current shoe from a new seed, which
+     * is recorded.
+     */
+    @Override
+    public void shuffleDeck()
+    {
+        shuffleDeck(algorithm.newSeed());
+    }
+
+    /**
+     * Shuffles the cards remaining in the current shoe from the specified
+     * seed, which is recorded. Replaying a recorded reshuffle after the same
+     * number of cards have been dealt from a shoe rebuilt from the same shoe
+     * seed gives the same cards in the same order.
+     *
+     * @param seed the seed to shuffle from.
+     */
+    public void shuffleDeck(final long seed)
+    {
+        ByteDeck.shuffle(codes, cursor, algorithm.create(seed));
+        reshuffles.add(new Reshuffle(codes.length - cursor, seed));
+    }
+
+    /**
+     * Swaps in the replacement shoe if the cut card has been reached and the
+     * replacement has finished shuffling. Never waits for the shuffle.
+     *
+     * @return true if the shoe was changed.
+     */
+    public boolean changeShoeIfDue()
+    {
+        if (replacement != null && replacement.isDone())
+        {
+            swapIn(replacement.join());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the cut card has been reached in the current shoe.
+     */
+    public boolean isCutCardReached()
+    {
+        return replacement != null;
+    }
+
+    /**
+     * @return the number of the current shoe, starting at 1.
+     */
+    public long getShoeNumber()
+    {
+        return shoeNumber;
+    }
+
+    /**
+     * @return the seed the current shoe was first shuffled from. Any later
+     * reshuffles are recorded by {@link #getReshuffles()}.
+     */
+    public long getShoeSeed()
+    {
+        return shoeSeed;
+    }
+
+    /**
+     * @return an unmodifiable copy of the reshuffles of the current shoe, in
+     * order, which is empty unless {@link #shuffleDeck()} has been called.
+     */
+    public List<Reshuffle> getReshuffles()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(reshuffles));
+    }
+
+    /**
+     * @return the algorithm used to shuffle each shoe.
+     */
+    public ShuffleAlgorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * @return the number of decks in the shoe.
+     */
+    public int getDeckCount()
+    {
+        return deckCount;
+    }
+
+    /**
+     * @return a copy of the composition of the cards remaining in the current
+     * shoe.
+     */
+    public DeckComposition getComposition()
+    {
+        return remaining.copy();
+    }
+
+    /**
+     * @param score the score of a hand.
+     * @return the probability that the next card busts a hand with the score.
+     * If the current shoe is empty the next card comes from the replacement,
+     * which is full, and has the same proportions as a single full deck.
+     *
+     * @see DeckComposition#getBustProbability(int)
+     */
+    public double getBustProbability(final int score)
+    {
+        return (cursor == 0 ? FULL_DECK : remaining).getBustProbability(score);
+    }
+
+    /**
+     * Starts shuffling the replacement shoe in the background, if not already
+     * started.
+     */
+    private void startReplacement()
+    {
+        if (replacement == null)
+        {
+            replacementSeed = algorithm.newSeed();
+            final ShuffleSource source = algorithm.create(replacementSeed);
+            replacement = CompletableFuture.supplyAsync(
+                () -> createShuffledShoe(deckCount, source), Shuffler.EXECUTOR
+            );
+        }
+    }
+
+    /**
+     * Makes the specified shuffled shoe the current shoe.
+     */
+    private void swapIn(final byte[] shuffled)
+    {
+        codes = shuffled;
+        cursor = shuffled.length;
+        remaining.refill(deckCount);
+        replacement = null;
+        shoeNumber++;
+        shoeSeed = replacementSeed;
+        reshuffles.clear();
+    }
+
+    /**
+     * Checks the algorithm is not null and creates a new seed with it.
+     */
+    private static long newSeed(final ShuffleAlgorithm algorithm)
+    {
+        ExceptionUtil.assertNotNull(algorithm, "Algorithm cannot be null");
+        return algorithm.newSeed();
+    }
+
+    /**
+     * Creates the shuffled codes of a shoe with the specified number of decks.
+     */
+    private static byte[] createShuffledShoe(final int deckCount, final ShuffleSource source)
+    {
+        final byte[] shoe = new byte[deckCount * Cards.DECK_SIZE];
+        for (int i = 0; i < shoe.length; i++)
+        {
+            shoe[i] = (byte) (i % Cards.DECK_SIZE);
+        }
+        ByteDeck.shuffle(shoe, shoe.length, source);
+        return shoe;
+    }
+
+    /**
+     * A reshuffle of the cards remaining in a shoe, recorded so it can be
+     * replayed.
+     */
+    public static final class Reshuffle
+    {
+        private final int cardsDealt;
+        private final long seed;
+
+        private Reshuffle(final int cardsDealt, final long seed)
+        {
+            this.cardsDealt = cardsDealt;
+            this.seed = seed;
+        }
+
+        /**
+         * @return the number of cards dealt from the shoe before it was
+         * reshuffled.
+         */
+        public int getCardsDealt()
+        {
+            return cardsDealt;
+        }
+
+        /**
+         * @return the seed the remaining cards were shuffled from.
+         */
+        public long getSeed()
+        {
+            return seed;
+        }
+
+        /**
+         * String representation of the reshuffle.
+         */
+        @Override
+        public String toString()
+        {
+            return String.format("reshuffle after %d cards, seed %d", cardsDealt, seed);
+        }
+    }
+
+    /**
+     * Holds the low priority background thread shared by all shoes, created
+     * on first use.
+     */
+    private static final class Shuffler
+    {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "shoe-shuffler");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+}
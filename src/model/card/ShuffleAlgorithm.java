@@ -0,0 +1,117 @@
+package model.card;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The seedable random number generators which can be used to shuffle decks.
+ *
+ * <p>Each deck is given its own {@link ShuffleSource} created from a new
+ * seed, so decks on different tables and threads never share a generator or
+ * its lock. Recording the algorithm and seed (see {@link DeckSeed}) is
+ * enough to rebuild the deck in exactly the same order later.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.ShuffleSource
+ */
+public enum ShuffleAlgorithm
+{
+    /**
+     * {@link SplittableRandom}, fast and of good quality.
+     */
+    SPLITTABLE_RANDOM
+    {
+        @Override
+        public ShuffleSource create(final long seed)
+        {
+            return new SplittableRandom(seed)::nextInt;
+        }
+    },
+
+    /**
+     * The xoshiro256** generator, see {@link XoshiroShuffleSource}.
+     */
+    XOSHIRO
+    {
+        @Override
+        public ShuffleSource create(final long seed)
+        {
+            return new XoshiroShuffleSource(seed);
+        }
+    },
+
+    /**
+     * The SHA1PRNG {@link SecureRandom}, which is slower but cryptographically
+     * strong. It is deterministic when seeded before first use, and its new
+     * seeds come from a strong source rather than
+     * {@link ThreadLocalRandom}.
+     */
+    SECURE_RANDOM
+    {
+        @Override
+        public ShuffleSource create(final long seed)
+        {
+            final SecureRandom random = SeedSource.createSha1Prng();
+            random.setSeed(ByteBuffer.allocate(Long.BYTES).putLong(seed).array());
+            return random::nextInt;
+        }
+
+        @Override
+        public long newSeed()
+        {
+            return SeedSource.RANDOM.get().nextLong();
+        }
+    };
+
+    /**
+     * Creates a new source of random numbers from the specified seed. Sources
+     * created from the same seed produce the same numbers.
+     *
+     * @param seed the seed.
+     * @return a new shuffle source.
+     */
+    public abstract ShuffleSource create(long seed);
+
+    /**
+     * Creates a new random seed, without contending with other threads.
+     *
+     * @return a new seed.
+     */
+    public long newSeed()
+    {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Holds the strong sources of seeds for {@link #SECURE_RANDOM}, one per
+     * thread so tables never contend for a shared generator's lock. Each is a
+     * SHA1PRNG which seeds itself from the system once, on first use, rather
+     * than the default Linux generator, which shares one lock between all of
+     * its instances.
+     */
+    private static final class SeedSource
+    {
+        private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SeedSource::createSha1Prng);
+
+        /**
+         * Creates a new SHA1PRNG generator, which seeds itself on first use
+         * unless it is seeded first.
+         */
+        private static SecureRandom createSha1Prng()
+        {
+            try
+            {
+                return SecureRandom.getInstance("SHA1PRNG");
+            }
+            catch (final NoSuchAlgorithmException e)
+            {
+                throw new IllegalStateException("SHA1PRNG is not available", e);
+            }
+        }
+    }
+
+}
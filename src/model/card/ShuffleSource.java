@@ -0,0 +1,35 @@
+package model.card;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A source of the random numbers used to shuffle a deck.
+ *
+ * <p>A shuffle source is used by a single deck, or a single thread, at a
+ * time, so implementations need no locking. Sources created by a
+ * {@link ShuffleAlgorithm} from the same seed produce the same numbers, so a
+ * deck shuffled from a recorded seed can be rebuilt in exactly the same
+ * order.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.card.ShuffleAlgorithm
+ */
+public interface ShuffleSource
+{
+	/**
+	 * Unseeded source which uses the calling thread's
+	 * {@link ThreadLocalRandom}, so it can be shared by all threads without
+	 * contention. Its numbers cannot be reproduced.
+	 */
+	public static final ShuffleSource THREAD_LOCAL = bound -> ThreadLocalRandom.current().nextInt(bound);
+
+	/**
+	 * Returns a uniformly distributed random number from 0 (inclusive) to the
+	 * specified bound (exclusive).
+	 *
+	 * @param bound the upper bound, which must be positive.
+	 * @return the next random number.
+	 */
+	public int nextInt(int bound);
+}
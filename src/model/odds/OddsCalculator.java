@@ -0,0 +1,643 @@
+package model.odds;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.card.DeckComposition;
+import model.card.Hand;
+import model.card.Rank;
+import model.card.Suit;
+import util.ExceptionUtil;
+
+/**
+ * Calculates the exact odds of a round, for a player who is dealt until they
+ * bust followed by the house, from the composition of the cards remaining.
+ *
+ * <p>Only card values matter to the deal, so cards are grouped into ten
+ * value classes (the tens and picture cards share a class). A hand keeps
+ * every card until one would bust it, and the bust card is discarded. For a
+ * round in which the player keeps one multiset of classes and the house
+ * another, the number of ways of dealing it is the product, over the
+ * classes, of the ways of dealing both hands' cards of the class, times the
+ * ways of picking each bust card from the cards neither hand kept (the
+ * player's first). So the calculation is a dynamic programme over the
+ * classes, from the tens down, choosing how many cards of each class each
+ * hand keeps, with the bust cards counted once the aces are reached. This
+ * settles a score bet and gives the distribution of each final score.</p>
+ *
+ * <p>Suit bets also need the suit of the cards kept. Which cards of a class
+ * are of a suit is a joint hypergeometric draw within the class, so the
+ * programme carries the distribution of the player's cards of the suit
+ * minus the house's, convolving in the distribution of each class. These
+ * distributions depend only on the class's composition and the cards each
+ * hand keeps, and are memoised between calculations on a compact key of
+ * them. Suits with the same cards remaining, of which the player holds as
+ * many, share one calculation (so a full deck calculates one suit).</p>
+ *
+ * <p>The composition must hold enough cards that neither hand can run out.
+ * The player's current hand is taken as already dealt, and its cards must
+ * not be in the composition. This class is not thread safe, as the memo is
+ * shared between calculations.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.MonteCarloSimulator
+ */
+public class OddsCalculator
+{
+
+    /**
+     * Largest number of each card (i.e. of decks) supported.
+     */
+    public static final int MAX_DECKS = 15;
+
+    /**
+     * Default number of class distributions kept in the memo before it is
+     * cleared.
+     */
+    public static final int DEFAULT_MEMO_CAPACITY = 1 << 16;
+
+    /**
+     * Number of value classes, class i holds the cards of value i + 1.
+     */
+    private static final int CLASSES = 10;
+
+    /**
+     * Classes of the aces and of the tens.
+     */
+    private static final int ACE_CLASS = 0;
+    private static final int TEN_CLASS = CLASSES - 1;
+
+    /**
+     * Number of possible final scores, from 0 to the bust score.
+     */
+    private static final int SCORES = Hand.BUST_SCORE + 1;
+
+    /**
+     * Most cards a hand can keep (all aces).
+     */
+    private static final int MAX_HAND = Hand.BUST_SCORE;
+
+    /**
+     * Index of a difference of 0 in a suit difference distribution.
+     */
+    private static final int OFFSET = MAX_HAND;
+
+    /**
+     * Bits of a memo key for the cards kept by each hand, and for the cards
+     * of the class of the suit.
+     */
+    private static final int KEPT_BITS = 5;
+    private static final int SUIT_BITS = 6;
+
+    private static final Suit[] SUITS = Suit.values();
+
+    /**
+     * Binomial coefficients up to the most cards of a class, indexed by n and
+     * then k.
+     */
+    private static final double[][] BINOMIAL = createBinomials(MAX_DECKS * 16 + 1, MAX_HAND + 2);
+
+    /**
+     * Binomial coefficients up to the most cards in a composition.
+     */
+    private static final double[][] BINOMIAL_TOTAL = createBinomials(MAX_DECKS * 52 + 1, MAX_HAND + 2);
+
+    /**
+     * Suit difference distributions of a class, keyed on the class's
+     * composition and the cards kept by each hand.
+     */
+    private final Map<Integer,double[]> classMemo;
+
+    /**
+     * Number of distributions kept in the memo before it is cleared.
+     */
+    private final int memoCapacity;
+
+    /**
+     * Creates a calculator with the default memo capacity.
+     */
+    public OddsCalculator()
+    {
+        this(DEFAULT_MEMO_CAPACITY);
+    }
+
+    /**
+     * Creates a calculator.
+     *
+     * @param memoCapacity number of class distributions kept in the memo
+     * before it is cleared.
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public OddsCalculator(final int memoCapacity) throws IllegalArgumentException
+    {
+        ExceptionUtil.assertLegalArgument(memoCapacity > 0, "Memo capacity must be positive");
+        this.memoCapacity = memoCapacity;
+        this.classMemo = new HashMap<>();
+    }
+
+    /**
+     * Calculates the odds of a round dealt from the specified cards to a
+     * player with an empty hand.
+     *
+     * @param remaining the cards remaining.
+     * @return the odds of the round.
+     * @throws NullPointerException if the composition is null
+     * @throws IllegalArgumentException if the composition has too many of a
+     * card or too few cards for the round
+     */
+    public RoundOdds calculate(final DeckComposition remaining)
+        throws NullPointerException, IllegalArgumentException
+    {
+        return calculate(remaining, null);
+    }
+
+    /**
+     * Calculates the odds of a round dealt from the specified cards to a
+     * player already holding the specified hand.
+     *
+     * @param remaining the cards remaining, not including the hand.
+     * @param playerHand the player's hand so far, or null for an empty hand.
+     * @return the odds of the round.
+     * @throws NullPointerException if the composition is null
+     * @throws IllegalArgumentException if the composition has too many of a
+     * card or too few cards for the round
+     */
+    public RoundOdds calculate(final DeckComposition remaining, final Hand playerHand)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(remaining, "Composition cannot be null");
+        final Query query = new Query(remaining, playerHand);
+        query.run();
+        return query.toOdds();
+    }
+
+    /**
+     * @return the number of class distributions in the memo.
+     */
+    public int getMemoSize()
+    {
+        return classMemo.size();
+    }
+
+    /**
+     * Returns the distribution of the player's minus the house's cards of a
+     * suit, among the cards of a class kept by each, from the memo if
+     * possible.
+     *
+     * @param count number of cards of the class.
+     * @param ofSuit number of them of the suit.
+     * @param player number kept by the player.
+     * @param house number kept by the house.
+     */
+    private double[] classDifference(final int count, final int ofSuit, final int player, final int house)
+    {
+        final Integer key = (((count << SUIT_BITS | ofSuit) << KEPT_BITS | player) << KEPT_BITS) | house;
+        double[] distribution = classMemo.get(key);
+        if (distribution == null)
+        {
+            distribution = createClassDifference(count, ofSuit, player, house);
+            if (classMemo.size() >= memoCapacity)
+            {
+                classMemo.clear();
+            }
+            classMemo.put(key, distribution);
+        }
+        return distribution;
+    }
+
+    /**
+     * @return the class of cards of the rank.
+     */
+    private static int classOf(final Rank rank)
+    {
+        return rank.getRankValue() - 1;
+    }
+
+    /**
+     * Creates a table of binomial coefficients.
+     */
+    private static double[][] createBinomials(final int maxN, final int maxK)
+    {
+        final double[][] table = new double[maxN][maxK];
+        for (int n = 0; n < maxN; n++)
+        {
+            table[n][0] = 1;
+            for (int k = 1; k < maxK && k <= n; k++)
+            {
+                table[n][k] = table[n - 1][k - 1] + (k < n ? table[n - 1][k] : 0);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Creates the distribution of
+     * {@link #classDifference(int, int, int, int)}, for the player's cards
+     * dealt first. The first element is the lowest difference, the rest are
+     * the probabilities from it.
+     */
+    private static double[] createClassDifference(final int count, final int ofSuit, final int player,
+        final int house)
+    {
+        final double[] distribution = new double[player + house + 2];
+        distribution[0] = -house;
+        final int left = count - player;
+        for (int x = 0; x <= Math.min(ofSuit, player); x++)
+        {
+            final double px = BINOMIAL[ofSuit][x] * BINOMIAL[count - ofSuit][player - x] / BINOMIAL[count][player];
+            if (px == 0)
+            {
+                continue;
+            }
+            final int suitLeft = ofSuit - x;
+            for (int y = 0; y <= Math.min(suitLeft, house); y++)
+            {
+                final double py = BINOMIAL[suitLeft][y] * BINOMIAL[left - suitLeft][house - y] / BINOMIAL[left][house];
+                distribution[1 + x - y + house] += px * py;
+            }
+        }
+        return distribution;
+    }
+
+    /**
+     * The state of a single calculation.
+     */
+    private final class Query
+    {
+        /**
+         * Count of each class remaining before the round.
+         */
+        private final int[] counts = new int[CLASSES];
+
+        /**
+         * Count of each class of each suit remaining, by suit ordinal.
+         */
+        private final int[][] suitCounts = new int[SUITS.length][CLASSES];
+
+        private final int total;
+        private final int handScore;
+        private final int[] handSuitCounts = new int[SUITS.length];
+
+        /**
+         * Suits calculated, each standing for the suits after it with the
+         * same odds, and the index of the calculated suit for each suit.
+         */
+        private final int[] calculated;
+        private final int[] calculatedIndex = new int[SUITS.length];
+
+        /**
+         * Cards of each class kept by the player and the house in the hands
+         * being enumerated.
+         */
+        private final int[] kept = new int[CLASSES];
+        private final int[] house = new int[CLASSES];
+
+        /**
+         * Reciprocal of the number of ways of dealing a round in which the
+         * player keeps the first index of cards and the house the second,
+         * each followed by a bust card, counting the kept cards in any order.
+         */
+        private final double[][] dealings = new double[MAX_HAND + 1][MAX_HAND + 1];
+
+        /**
+         * Cards of the classes above the aces neither hand kept, summed from
+         * each class up (and for the aces from the twos up).
+         */
+        private final int[] unusedFrom = new int[CLASSES];
+
+        /**
+         * For each calculated suit, the suit difference distribution of the
+         * classes above each class of the enumeration, which may share the
+         * buffer of the class above, with the range of differences in use.
+         */
+        private final double[][][] buffers;
+        private final double[][][] differences;
+        private final int[][] lows;
+        private final int[][] highs;
+
+        /**
+         * For each calculated suit, the chance the difference of the classes
+         * above the aces is at least each index less the offset.
+         */
+        private final double[][] tails;
+
+        /**
+         * For each calculated suit, the suit difference distribution of each
+         * class, indexed by class and the cards kept by the player and the
+         * house, taken from the memo as needed.
+         */
+        private final double[][][][][] classDifferences;
+
+        private final double[] playerScores = new double[SCORES];
+        private final double[] houseScores = new double[SCORES];
+        private final double[] calculatedWins;
+        private double scoreWin;
+        private double scoreDraw;
+
+        private Query(final DeckComposition remaining, final Hand playerHand)
+        {
+            for (final Suit suit : SUITS)
+            {
+                for (final Rank rank : Rank.values())
+                {
+                    final int count = remaining.getCount(suit, rank);
+                    ExceptionUtil.assertLegalArgument(count <= MAX_DECKS, "Too many of a card in composition");
+                    counts[classOf(rank)] += count;
+                    suitCounts[suit.ordinal()][classOf(rank)] += count;
+                }
+            }
+            this.total = remaining.size();
+            if (playerHand != null)
+            {
+                this.handScore = playerHand.getScore();
+                for (final Suit suit : SUITS)
+                {
+                    handSuitCounts[suit.ordinal()] = playerHand.getSuitCount(suit);
+                }
+            }
+            else
+            {
+                this.handScore = 0;
+            }
+            final int mostKept = mostCardsKept();
+            ExceptionUtil.assertLegalArgument(total >= 2 * (mostKept + 1), "Too few cards in composition for a round");
+            for (int p = 0; p <= mostKept; p++)
+            {
+                for (int h = 0; h <= mostKept; h++)
+                {
+                    dealings[p][h] = 1 / (BINOMIAL_TOTAL[total][p] * (total - p)
+                        * BINOMIAL_TOTAL[total - p - 1][h] * (total - p - 1 - h));
+                }
+            }
+
+            int calculatedCount = 0;
+            final int[] suits = new int[SUITS.length];
+            for (int s = 0; s < SUITS.length; s++)
+            {
+                final int same = sameSuitAs(s);
+                if (same == s)
+                {
+                    suits[calculatedCount++] = s;
+                }
+                calculatedIndex[s] = same == s ? calculatedCount - 1 : calculatedIndex[same];
+            }
+            this.calculated = Arrays.copyOf(suits, calculatedCount);
+            this.buffers = new double[calculatedCount][CLASSES][2 * OFFSET + 1];
+            this.differences = new double[calculatedCount][CLASSES][];
+            this.lows = new int[calculatedCount][CLASSES];
+            this.highs = new int[calculatedCount][CLASSES];
+            this.tails = new double[calculatedCount][2 * OFFSET + 2];
+            this.classDifferences = new double[calculatedCount][CLASSES][MAX_HAND + 1][MAX_HAND + 1][];
+            this.calculatedWins = new double[calculatedCount];
+        }
+
+        /**
+         * @return the most cards a hand could keep from the composition.
+         */
+        private int mostCardsKept()
+        {
+            int score = 0;
+            int cards = 0;
+            for (int i = 0; i < CLASSES; i++)
+            {
+                for (int c = 0; c < counts[i] && score + i + 1 <= Hand.BUST_SCORE; c++)
+                {
+                    score += i + 1;
+                    cards++;
+                }
+            }
+            return cards;
+        }
+
+        /**
+         * @return the first suit whose odds are the same as the suit's, which
+         * may be itself.
+         */
+        private int sameSuitAs(final int suit)
+        {
+            for (int s = 0; s < suit; s++)
+            {
+                if (handSuitCounts[s] == handSuitCounts[suit] && Arrays.equals(suitCounts[s], suitCounts[suit]))
+                {
+                    return s;
+                }
+            }
+            return suit;
+        }
+
+        /**
+         * Calculates the odds of each bet.
+         */
+        private void run()
+        {
+            for (int c = 0; c < calculated.length; c++)
+            {
+                final double[] buffer = buffers[c][TEN_CLASS];
+                buffer[OFFSET] = 1;
+                differences[c][TEN_CLASS] = buffer;
+                lows[c][TEN_CLASS] = OFFSET;
+                highs[c][TEN_CLASS] = OFFSET;
+            }
+            enumerate(TEN_CLASS, 0, handScore, 0, 0, 1);
+        }
+
+        /**
+         * Enumerates the cards of the specified class kept by each hand,
+         * given the cards of the classes above it, down to the aces. The
+         * classes are taken from the highest, as lower classes have more
+         * ways of being kept and are better enumerated last.
+         *
+         * @param ways number of ways of dealing the kept cards of the classes
+         * above from them.
+         */
+        private void enumerate(final int cls, final int playerCards, final int playerScore, final int houseCards,
+            final int houseScore, final double ways)
+        {
+            if (cls == ACE_CLASS)
+            {
+                settle(playerCards, playerScore, houseCards, houseScore, ways);
+                return;
+            }
+            final int count = counts[cls];
+            final int value = cls + 1;
+            for (int p = 0; p <= count && playerScore + p * value <= Hand.BUST_SCORE; p++)
+            {
+                kept[cls] = p;
+                for (int h = 0; p + h <= count && houseScore + h * value <= Hand.BUST_SCORE; h++)
+                {
+                    house[cls] = h;
+                    for (int c = 0; c < calculated.length; c++)
+                    {
+                        convolve(c, cls, classDifference(c, cls, p, h));
+                    }
+                    enumerate(cls - 1, playerCards + p, playerScore + p * value, houseCards + h,
+                        houseScore + h * value, ways * BINOMIAL[count][p] * BINOMIAL[count - p][h]);
+                }
+            }
+            kept[cls] = 0;
+            house[cls] = 0;
+        }
+
+        /**
+         * Enumerates the aces kept by each hand, and settles every bet on
+         * each pair of hands. Each bust card may be any card neither hand
+         * kept whose value would bust it, other than the player's bust card
+         * for the house.
+         */
+        private void settle(final int playerCards, final int playerScore, final int houseCards,
+            final int houseScore, final double ways)
+        {
+            for (int c = 0; c < calculated.length; c++)
+            {
+                final double[] difference = differences[c][ACE_CLASS];
+                final double[] tail = tails[c];
+                final int low = lows[c][ACE_CLASS];
+                final int high = highs[c][ACE_CLASS];
+                double sum = 0;
+                for (int d = tail.length - 1; d >= 0; d--)
+                {
+                    if (d >= low && d <= high)
+                    {
+                        sum += difference[d];
+                    }
+                    tail[d] = sum;
+                }
+            }
+            int unused = 0;
+            for (int i = TEN_CLASS; i > ACE_CLASS; i--)
+            {
+                unused += counts[i] - kept[i] - house[i];
+                unusedFrom[i] = unused;
+            }
+            unusedFrom[ACE_CLASS] = unused;
+
+            final int count = counts[ACE_CLASS];
+            for (int p = 0; p <= count && playerScore + p <= Hand.BUST_SCORE; p++)
+            {
+                final int playerFinal = playerScore + p;
+                final int playerBust = Hand.BUST_SCORE - playerFinal;
+                for (int h = 0; p + h <= count && houseScore + h <= Hand.BUST_SCORE; h++)
+                {
+                    final int houseFinal = houseScore + h;
+                    final int houseBust = Hand.BUST_SCORE - houseFinal;
+                    if (playerBust > TEN_CLASS || houseBust > TEN_CLASS)
+                    {
+                        // A hand which no card can bust is not final
+                        continue;
+                    }
+                    // Only a hand on the bust score is busted by an ace
+                    final int left = count - p - h;
+                    final int playerStops = unusedFrom[playerBust] + (playerBust == ACE_CLASS ? left : 0);
+                    final int houseStops = unusedFrom[houseBust] + (houseBust == ACE_CLASS ? left : 0);
+                    final int bothStop = Math.max(playerBust, houseBust) == ACE_CLASS ? playerStops
+                        : unusedFrom[Math.max(playerBust, houseBust)];
+                    final double chance = ways * BINOMIAL[count][p] * BINOMIAL[count - p][h]
+                        * ((double) playerStops * houseStops - bothStop) * dealings[playerCards + p][houseCards + h];
+
+                    playerScores[playerFinal] += chance;
+                    houseScores[houseFinal] += chance;
+                    if (playerFinal > houseFinal)
+                    {
+                        scoreWin += chance;
+                    }
+                    else if (playerFinal == houseFinal)
+                    {
+                        scoreDraw += chance;
+                    }
+                    for (int c = 0; c < calculated.length; c++)
+                    {
+                        calculatedWins[c] += chance * suitWin(c, p, h);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the chance the player holds more cards of the calculated
+         * suit than the house, given the aces kept by each and the
+         * difference of the classes above.
+         */
+        private double suitWin(final int calculatedSuit, final int player, final int house)
+        {
+            final double[] tail = tails[calculatedSuit];
+            final double[] factor = classDifference(calculatedSuit, ACE_CLASS, player, house);
+            final int threshold = OFFSET + 1 - handSuitCounts[calculated[calculatedSuit]] - (int) factor[0] + 1;
+            double win = 0;
+            for (int f = 1; f < factor.length; f++)
+            {
+                win += factor[f] * tail[Math.max(0, Math.min(tail.length - 1, threshold - f))];
+            }
+            return win;
+        }
+
+        /**
+         * Convolves the difference distribution of the classes above the
+         * specified class with the class's distribution, for the class below.
+         */
+        private void convolve(final int calculatedSuit, final int cls, final double[] factor)
+        {
+            final int[] low = lows[calculatedSuit];
+            final int[] high = highs[calculatedSuit];
+            final double[][] difference = differences[calculatedSuit];
+            final int factorLow = (int) factor[0];
+            final int width = factor.length - 1;
+            low[cls - 1] = low[cls] + factorLow;
+            high[cls - 1] = high[cls] + factorLow + width - 1;
+            if (width == 1 && factorLow == 0)
+            {
+                // Neither hand kept a card of the class
+                difference[cls - 1] = difference[cls];
+                return;
+            }
+            final double[] from = difference[cls];
+            final double[] to = buffers[calculatedSuit][cls - 1];
+            Arrays.fill(to, low[cls - 1], high[cls - 1] + 1, 0);
+            for (int d = low[cls]; d <= high[cls]; d++)
+            {
+                final double p = from[d];
+                if (p != 0)
+                {
+                    for (int f = 0; f < width; f++)
+                    {
+                        to[d + factorLow + f] += p * factor[f + 1];
+                    }
+                }
+            }
+            difference[cls - 1] = to;
+        }
+
+        /**
+         * @return the suit difference distribution of the cards of a class
+         * kept by each hand, for the calculated suit.
+         */
+        private double[] classDifference(final int calculatedSuit, final int cls, final int player, final int house)
+        {
+            final double[][] byHouse = classDifferences[calculatedSuit][cls][player];
+            double[] distribution = byHouse[house];
+            if (distribution == null)
+            {
+                distribution = OddsCalculator.this.classDifference(
+                    counts[cls], suitCounts[calculated[calculatedSuit]][cls], player, house
+                );
+                byHouse[house] = distribution;
+            }
+            return distribution;
+        }
+
+        /**
+         * @return a summary of the round's results as odds.
+         */
+        private RoundOdds toOdds()
+        {
+            final double[] suitWins = new double[SUITS.length];
+            for (int s = 0; s < SUITS.length; s++)
+            {
+                suitWins[s] = calculatedWins[calculatedIndex[s]];
+            }
+            return new RoundOdds(scoreWin, scoreDraw, suitWins, playerScores, houseScores);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package model.odds;
+
+import model.bet.Bet;
+import model.bet.ScoreBet;
+import model.bet.SuitBet;
+import model.card.Hand;
+import model.card.Suit;
+
+/**
+ * The exact odds of a round for a player who is dealt until they bust,
+ * followed by the house, as calculated by {@link OddsCalculator}.
+ *
+ * <p>Holds the probability of each result of a score bet and of a suit bet
+ * on each suit, and the distribution of the final score of the player and
+ * of the house.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.odds.OddsCalculator
+ */
+public final class RoundOdds
+{
+
+    private final double scoreWin;
+    private final double scoreDraw;
+    private final double[] suitWins;
+    private final double[] playerScores;
+    private final double[] houseScores;
+
+    /**
+     * Package private constructor, odds are created by the calculator.
+     *
+     * @param scoreWin probability the player wins a score bet.
+     * @param scoreDraw probability a score bet is drawn.
+     * @param suitWins probability the player wins a suit bet, by suit
+     * ordinal.
+     * @param playerScores probability of each final player score.
+     * @param houseScores probability of each final house score.
+     */
+    RoundOdds(final double scoreWin, final double scoreDraw, final double[] suitWins,
+        final double[] playerScores, final double[] houseScores)
+    {
+        this.scoreWin = scoreWin;
+        this.scoreDraw = scoreDraw;
+        this.suitWins = suitWins;
+        this.playerScores = playerScores;
+        this.houseScores = houseScores;
+    }
+
+    /**
+     * @return the probability the player wins a score bet.
+     */
+    public double getScoreWin()
+    {
+        return scoreWin;
+    }
+
+    /**
+     * @return the probability a score bet is drawn.
+     */
+    public double getScoreDraw()
+    {
+        return scoreDraw;
+    }
+
+    /**
+     * @return the probability the player loses a score bet.
+     */
+    public double getScoreLoss()
+    {
+        return Math.max(0, 1 - scoreWin - scoreDraw);
+    }
+
+    /**
+     * @param suit a suit.
+     * @return the probability the player wins a suit bet on the suit.
+     */
+    public double getSuitWin(final Suit suit)
+    {
+        return suitWins[suit.ordinal()];
+    }
+
+    /**
+     * @param suit a suit.
+     * @return the probability the player loses a suit bet on the suit (a
+     * suit bet cannot be drawn).
+     */
+    public double getSuitLoss(final Suit suit)
+    {
+        return Math.max(0, 1 - suitWins[suit.ordinal()]);
+    }
+
+    /**
+     * @param bet a bet.
+     * @return the probability the player wins the bet, or 0 if it is not a
+     * score or suit bet.
+     */
+    public double getWinProbability(final Bet bet)
+    {
+        if (bet instanceof SuitBet)
+        {
+            return getSuitWin(((SuitBet) bet).getSuit());
+        }
+        return bet instanceof ScoreBet ? scoreWin : 0;
+    }
+
+    /**
+     * @return the probability of each final player score, indexed by score
+     * up to {@link Hand#BUST_SCORE}.
+     */
+    public double[] getPlayerScoreDistribution()
+    {
+        return playerScores.clone();
+    }
+
+    /**
+     * @return the probability of each final house score, indexed by score
+     * up to {@link Hand#BUST_SCORE}.
+     */
+    public double[] getHouseScoreDistribution()
+    {
+        return houseScores.clone();
+    }
+
+    /**
+     * String representation of the odds.
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder(String.format(
+            "Score Bet: win=%.6f, draw=%.6f, loss=%.6f", scoreWin, scoreDraw, getScoreLoss()
+        ));
+        for (final Suit suit : Suit.values())
+        {
+            builder.append(String.format("%nSuit Bet on %s: win=%.6f, loss=%.6f", suit, getSuitWin(suit), getSuitLoss(suit)));
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,190 @@
+package model.sim;
+
+import model.card.Suit;
+import util.ExceptionUtil;
+
+/**
+ * The results of one kind of bet over a simulation, with the house edge,
+ * variance and confidence interval of the outcome per point staked.
+ *
+ * <p>As a bet can only win (paying its multiplier times the amount), draw
+ * (paying nothing) or lose (losing the amount), the counts of each result
+ * and the multiplier are enough to give the exact mean and variance of the
+ * outcome of the rounds simulated.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.MonteCarloSimulator
+ */
+public final class BetStatistics
+{
+
+    /**
+     * Standard normal quantile for a two sided 95% confidence interval.
+     */
+    public static final double Z_95 = 1.959963984540054;
+
+    private final Suit suit;
+    private final int multiplier;
+    private final long wins;
+    private final long draws;
+    private final long losses;
+
+    /**
+     * Creates the statistics of a bet.
+     *
+     * @param suit the suit of a suit bet, or null for a score bet.
+     * @param multiplier the multiplier paid on a win.
+     * @param wins number of rounds the player won.
+     * @param draws number of rounds drawn.
+     * @param losses number of rounds the player lost.
+     * @throws IllegalArgumentException if any count is negative
+     */
+    public BetStatistics(
+        final Suit suit, final int multiplier, final long wins, final long draws, final long losses)
+        throws IllegalArgumentException
+    {
+        ExceptionUtil.assertLegalArgument(
+            wins >= 0 && draws >= 0 && losses >= 0, "Result counts cannot be negative"
+        );
+        this.suit = suit;
+        this.multiplier = multiplier;
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    /**
+     * Returns the statistics of the same rounds with a different multiplier
+     * paid on a win. As the result of a bet does not depend on what it pays,
+     * this is exactly what a simulation with that multiplier would give.
+     *
+     * @param newMultiplier the multiplier paid on a win.
+     * @return the statistics of the bet with the multiplier.
+     */
+    public BetStatistics withMultiplier(final int newMultiplier)
+    {
+        return new BetStatistics(suit, newMultiplier, wins, draws, losses);
+    }
+
+    /**
+     * @return the multiplier at which the mean outcome would be zero, which
+     * need not be a whole number, or infinity if the player never won.
+     */
+    public double getBreakEvenMultiplier()
+    {
+        return wins == 0 ? Double.POSITIVE_INFINITY : (double) losses / wins;
+    }
+
+    /**
+     * @return the suit of a suit bet, or null for a score bet.
+     */
+    public Suit getSuit()
+    {
+        return suit;
+    }
+
+    /**
+     * @return the multiplier paid on a win.
+     */
+    public int getMultiplier()
+    {
+        return multiplier;
+    }
+
+    /**
+     * @return the number of rounds simulated.
+     */
+    public long getRounds()
+    {
+        return wins + draws + losses;
+    }
+
+    /**
+     * @return the number of rounds the player won.
+     */
+    public long getWins()
+    {
+        return wins;
+    }
+
+    /**
+     * @return the number of rounds drawn.
+     */
+    public long getDraws()
+    {
+        return draws;
+    }
+
+    /**
+     * @return the number of rounds the player lost.
+     */
+    public long getLosses()
+    {
+        return losses;
+    }
+
+    /**
+     * @return the mean outcome to the player per point staked.
+     */
+    public double getMeanOutcome()
+    {
+        return ((double) wins * multiplier - losses) / getRounds();
+    }
+
+    /**
+     * @return the house edge, the mean amount the house keeps per point
+     * staked.
+     */
+    public double getHouseEdge()
+    {
+        return -getMeanOutcome();
+    }
+
+    /**
+     * @return the sample variance of the outcome per point staked.
+     */
+    public double getVariance()
+    {
+        final long rounds = getRounds();
+        if (rounds < 2)
+        {
+            return 0;
+        }
+        final double mean = getMeanOutcome();
+        final double meanSquare = ((double) wins * multiplier * multiplier + losses) / rounds;
+        return (meanSquare - mean * mean) * rounds / (rounds - 1);
+    }
+
+    /**
+     * @return the standard error of the house edge.
+     */
+    public double getStandardError()
+    {
+        return Math.sqrt(getVariance() / getRounds());
+    }
+
+    /**
+     * @return the half width of the 95% confidence interval of the house
+     * edge.
+     */
+    public double getConfidenceHalfWidth()
+    {
+        return Z_95 * getStandardError();
+    }
+
+    /**
+     * String representation of the statistics.
+     */
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "%s (x%d): rounds=%d, win=%.6f, draw=%.6f, loss=%.6f, house edge=%.6f +/- %.6f, variance=%.6f",
+            suit == null ? "Score Bet" : "Suit Bet on " + suit, multiplier, getRounds(),
+            (double) wins / getRounds(), (double) draws / getRounds(), (double) losses / getRounds(),
+            getHouseEdge(), getConfidenceHalfWidth(), getVariance()
+        );
+    }
+
+}
@@ -0,0 +1,270 @@
+package model.sim;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.Player;
+import model.PlayerImpl;
+import model.bet.Bet;
+import model.bet.BetResult;
+import model.bet.ScoreBetImpl;
+import model.bet.SuitBetImpl;
+import model.card.Cards;
+import model.card.Hand;
+import model.card.HandImpl;
+import model.card.Suit;
+import util.ExceptionUtil;
+
+/**
+ * Headless simulator which plays rounds as fast as possible, with no delays
+ * and no callbacks, to measure the economics of score and suit bets.
+ *
+ * <p>Each round deals a player until they bust and then the house until it
+ * busts, from a single freshly shuffled deck, exactly as
+ * {@code TableEngine.dealUntilBust} does. The hands are real
+ * {@link HandImpl} hands and the round is settled with a real
+ * {@link ScoreBetImpl} and a real {@link SuitBetImpl} on each suit, so the
+ * bust rules, results and multipliers are those of the game itself. Every
+ * bet is settled against the same rounds.</p>
+ *
+ * <p>The rounds are split between the threads of a {@link ForkJoinPool}.
+ * Every task has its own hands and bets, so nothing is shared between
+ * threads while simulating. A deck is shuffled lazily: each card is picked at
+ * random from those remaining as it is drawn (see
+ * {@link model.card.ByteDeck#createLazyShuffledDeck()}), so a round only
+ * pays for the cards it draws.</p>
+ *
+ * <p>Each round draws from its own {@link RoundRandom} stream, worked out
+ * from the seed and the index of the round, and starts from a deck in the
+ * same order. A round is therefore played the same way whichever task plays
+ * it, and as the results are counts their totals do not depend on the order
+ * they are added in. A seed gives exactly the same results whatever the size
+ * of the pool.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.SimulationResult
+ */
+public class MonteCarloSimulator
+{
+
+    /**
+     * Fewest rounds simulated by a single fork/join task.
+     */
+    private static final long MIN_TASK_ROUNDS = 1L << 16;
+
+    /**
+     * Index of the score bet in a task's bets, suit bets follow in suit
+     * order.
+     */
+    private static final int SCORE_BET = 0;
+
+    private static final Suit[] SUITS = Suit.values();
+
+    /**
+     * Codes of every card in card table order, the deck every round starts
+     * from.
+     */
+    private static final byte[] SORTED_CODES = new byte[Cards.DECK_SIZE];
+
+    static
+    {
+        for (int i = 0; i < SORTED_CODES.length; i++)
+        {
+            SORTED_CODES[i] = (byte) i;
+        }
+    }
+
+    /**
+     * Pool used to run the simulation.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a simulator using the common fork/join pool.
+     */
+    public MonteCarloSimulator()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a simulator using the specified pool.
+     *
+     * @param pool pool used to run the simulation.
+     * @throws NullPointerException if the pool is null
+     */
+    public MonteCarloSimulator(final ForkJoinPool pool) throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(pool, "Pool cannot be null");
+        this.pool = pool;
+    }
+
+    /**
+     * Simulates the specified number of rounds.
+     *
+     * @param rounds the number of rounds to simulate.
+     * @param seed seed the stream of each round is worked out from.
+     * @return the results of the simulation.
+     * @throws IllegalArgumentException if the number of rounds is not
+     * positive
+     */
+    public SimulationResult simulate(final long rounds, final long seed) throws IllegalArgumentException
+    {
+        ExceptionUtil.assertLegalArgument(rounds > 0, "Rounds must be positive");
+        final long taskRounds = Math.max(MIN_TASK_ROUNDS, rounds / (pool.getParallelism() * 8L));
+        final long start = System.nanoTime();
+        final long[][] tally = pool.invoke(new SimulateTask(0, rounds, seed, taskRounds));
+        final long elapsed = System.nanoTime() - start;
+
+        final Tables tables = new Tables();
+        final BetStatistics scoreBet = statistics(tables.bets[SCORE_BET], null, tally[SCORE_BET]);
+        final Map<Suit,BetStatistics> suitBets = new EnumMap<>(Suit.class);
+        for (final Suit suit : SUITS)
+        {
+            final int index = SCORE_BET + 1 + suit.ordinal();
+            suitBets.put(suit, statistics(tables.bets[index], suit, tally[index]));
+        }
+        return new SimulationResult(scoreBet, suitBets, elapsed);
+    }
+
+    /**
+     * Creates the statistics of a bet from its tally of results.
+     */
+    private static BetStatistics statistics(final Bet bet, final Suit suit, final long[] tally)
+    {
+        return new BetStatistics(
+            suit, bet.getMultiplier(),
+            tally[BetResult.PLAYER_WIN.ordinal()], tally[BetResult.DRAW.ordinal()],
+            tally[BetResult.PLAYER_LOSS.ordinal()]
+        );
+    }
+
+    /**
+     * A simulated player and house, with a bet of each kind, used by one
+     * task at a time.
+     */
+    private static final class Tables
+    {
+        private final Player player = new PlayerImpl("simulation", "Simulation", Integer.MAX_VALUE);
+        private final Hand house = new HandImpl();
+        private final Bet[] bets = new Bet[SCORE_BET + 1 + SUITS.length];
+
+        /**
+         * Random stream of the current round.
+         */
+        private final RoundRandom random = new RoundRandom();
+
+        /**
+         * Codes of the cards of the deck, permuted in place as cards are
+         * drawn.
+         */
+        private final byte[] codes = new byte[Cards.DECK_SIZE];
+
+        /**
+         * Number of cards remaining in the current round's deck.
+         */
+        private int cursor;
+
+        private Tables()
+        {
+            bets[SCORE_BET] = new ScoreBetImpl(player, 1);
+            for (final Suit suit : SUITS)
+            {
+                bets[SCORE_BET + 1 + suit.ordinal()] = new SuitBetImpl(player, 1, suit);
+            }
+        }
+
+        /**
+         * Plays the specified round and adds the result of every bet to the
+         * tally.
+         */
+        private void playRound(final long seed, final long round, final long[][] tally)
+        {
+            random.startRound(seed, round);
+            System.arraycopy(SORTED_CODES, 0, codes, 0, codes.length);
+            cursor = codes.length;
+            final Hand hand = player.getHand();
+            hand.reset();
+            house.reset();
+            dealUntilBust(hand);
+            dealUntilBust(house);
+            for (int i = 0; i < bets.length; i++)
+            {
+                tally[i][bets[i].finaliseBet(house).ordinal()]++;
+            }
+        }
+
+        /**
+         * Deals cards into the hand until one would bust it.
+         */
+        private void dealUntilBust(final Hand hand)
+        {
+            boolean dealBust = false;
+            while (!dealBust)
+            {
+                final int top = cursor - 1;
+                final int pick = random.nextInt(cursor);
+                final byte swap = codes[top];
+                codes[top] = codes[pick];
+                codes[pick] = swap;
+                cursor = top;
+                dealBust = !hand.dealCard(Cards.of(codes[top]));
+            }
+        }
+    }
+
+    /**
+     * Fork/join task which splits a range of rounds in half until it is no
+     * larger than the task size, then simulates it. Returns the tally of
+     * results, indexed by bet and then by {@link BetResult} ordinal.
+     */
+    private static final class SimulateTask extends RecursiveTask<long[][]>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final long seed;
+        private final long taskRounds;
+
+        private SimulateTask(final long from, final long to, final long seed, final long taskRounds)
+        {
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+            this.taskRounds = taskRounds;
+        }
+
+        @Override
+        protected long[][] compute()
+        {
+            if (to - from <= taskRounds)
+            {
+                final Tables tables = new Tables();
+                final long[][] tally = new long[tables.bets.length][BetResult.values().length];
+                for (long round = from; round < to; round++)
+                {
+                    tables.playRound(seed, round, tally);
+                }
+                return tally;
+            }
+            final long middle = (from + to) >>> 1;
+            final SimulateTask right = new SimulateTask(middle, to, seed, taskRounds);
+            right.fork();
+            final long[][] tally = new SimulateTask(from, middle, seed, taskRounds).compute();
+            final long[][] rightTally = right.join();
+            for (int bet = 0; bet < tally.length; bet++)
+            {
+                for (int result = 0; result < tally[bet].length; result++)
+                {
+                    tally[bet][result] += rightTally[bet][result];
+                }
+            }
+            return tally;
+        }
+    }
+
+}
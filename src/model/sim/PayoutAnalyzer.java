@@ -0,0 +1,109 @@
+package model.sim;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import util.ExceptionUtil;
+
+/**
+ * What-if analysis of the payout multipliers, which gives the house edge and
+ * variance of the bets for many candidate multipliers at the cost of a single
+ * simulation.
+ *
+ * <p>The result of a bet (win, draw or loss) depends only on the cards dealt,
+ * never on what the bet pays. The rounds are simulated once with the game's
+ * own bets, and the counts of each result are all that is kept of them. Each
+ * candidate is then priced from those counts in constant time (see
+ * {@link BetStatistics}), which gives exactly what a simulation of the same
+ * rounds paying the candidate multipliers would give. Hundreds of
+ * candidates therefore cost no more than one simulation.</p>
+ *
+ * <p>The multipliers the game pays are not changed, and are only read
+ * through {@link model.bet.Bet#getMultiplier()}.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.MonteCarloSimulator
+ * @see model.sim.PayoutMultipliers
+ */
+public final class PayoutAnalyzer
+{
+
+    /**
+     * Simulator used to play the rounds.
+     */
+    private final MonteCarloSimulator simulator;
+
+    /**
+     * Creates an analyzer using a simulator on the common fork/join pool.
+     */
+    public PayoutAnalyzer()
+    {
+        this(new MonteCarloSimulator());
+    }
+
+    /**
+     * Creates an analyzer using the specified simulator.
+     *
+     * @param simulator simulator used to play the rounds.
+     * @throws NullPointerException if the simulator is null
+     */
+    public PayoutAnalyzer(final MonteCarloSimulator simulator) throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(simulator, "Simulator cannot be null");
+        this.simulator = simulator;
+    }
+
+    /**
+     * Simulates the specified number of rounds once, then prices every
+     * candidate set of multipliers against the same rounds.
+     *
+     * @param rounds the number of rounds to simulate.
+     * @param seed seed of the simulation.
+     * @param candidates the sets of multipliers to price.
+     * @return an unmodifiable map of the results with each set of
+     * multipliers, in the order of the candidates.
+     * @throws NullPointerException if the candidates or any candidate are null
+     * @throws IllegalArgumentException if the number of rounds is not
+     * positive
+     */
+    public Map<PayoutMultipliers,SimulationResult> analyse(
+        final long rounds, final long seed, final Collection<PayoutMultipliers> candidates)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(candidates, "Candidates cannot be null");
+        for (final PayoutMultipliers candidate : candidates)
+        {
+            ExceptionUtil.assertNotNull(candidate, "Candidate cannot be null");
+        }
+        return price(simulator.simulate(rounds, seed), candidates);
+    }
+
+    /**
+     * Prices every candidate set of multipliers against the rounds of an
+     * earlier simulation.
+     *
+     * @param result the results of a simulation.
+     * @param candidates the sets of multipliers to price.
+     * @return an unmodifiable map of the results with each set of
+     * multipliers, in the order of the candidates.
+     * @throws NullPointerException if the result, the candidates or any
+     * candidate are null
+     */
+    public static Map<PayoutMultipliers,SimulationResult> price(
+        final SimulationResult result, final Collection<PayoutMultipliers> candidates)
+        throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(result, "Simulation result cannot be null");
+        ExceptionUtil.assertNotNull(candidates, "Candidates cannot be null");
+        final Map<PayoutMultipliers,SimulationResult> priced = new LinkedHashMap<>();
+        for (final PayoutMultipliers candidate : candidates)
+        {
+            priced.put(candidate, result.withMultipliers(candidate));
+        }
+        return Collections.unmodifiableMap(priced);
+    }
+
+}
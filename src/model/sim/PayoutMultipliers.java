@@ -0,0 +1,85 @@
+package model.sim;
+
+import util.ExceptionUtil;
+
+/**
+ * A candidate set of payout multipliers, the multiple of the amount bet paid
+ * to the player when a score bet or a suit bet wins.
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.PayoutAnalyzer
+ */
+public final class PayoutMultipliers
+{
+
+    private final int scoreBetMultiplier;
+    private final int suitBetMultiplier;
+
+    /**
+     * Creates a set of multipliers.
+     *
+     * @param scoreBetMultiplier multiplier paid when a score bet wins.
+     * @param suitBetMultiplier multiplier paid when a suit bet wins.
+     * @throws IllegalArgumentException if either multiplier is not positive
+     */
+    public PayoutMultipliers(final int scoreBetMultiplier, final int suitBetMultiplier)
+        throws IllegalArgumentException
+    {
+        ExceptionUtil.assertLegalArgument(
+            scoreBetMultiplier > 0 && suitBetMultiplier > 0, "Multipliers must be positive"
+        );
+        this.scoreBetMultiplier = scoreBetMultiplier;
+        this.suitBetMultiplier = suitBetMultiplier;
+    }
+
+    /**
+     * @return the multiplier paid when a score bet wins.
+     */
+    public int getScoreBetMultiplier()
+    {
+        return scoreBetMultiplier;
+    }
+
+    /**
+     * @return the multiplier paid when a suit bet wins.
+     */
+    public int getSuitBetMultiplier()
+    {
+        return suitBetMultiplier;
+    }
+
+    /**
+     * Compares both multipliers.
+     */
+    @Override
+    public boolean equals(final Object other)
+    {
+        if (!(other instanceof PayoutMultipliers))
+        {
+            return false;
+        }
+        final PayoutMultipliers multipliers = (PayoutMultipliers) other;
+        return scoreBetMultiplier == multipliers.scoreBetMultiplier
+            && suitBetMultiplier == multipliers.suitBetMultiplier;
+    }
+
+    /**
+     * Hash code of both multipliers.
+     */
+    @Override
+    public int hashCode()
+    {
+        return 31 * scoreBetMultiplier + suitBetMultiplier;
+    }
+
+    /**
+     * String representation of the multipliers.
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("Score Bet x%d, Suit Bet x%d", scoreBetMultiplier, suitBetMultiplier);
+    }
+
+}
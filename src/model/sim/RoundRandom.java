@@ -0,0 +1,48 @@
+package model.sim;
+
+import model.card.LongShuffleSource;
+
+/**
+ * Counter based random stream for a single simulated round, so the cards of
+ * a round depend only on the simulation seed and the index of the round,
+ * never on which thread or task plays it.
+ *
+ * <p>The stream of a round is a SplitMix64 generator (the generator behind
+ * {@link java.util.SplittableRandom}) whose starting state is the mixed seed
+ * and round index. Starting a round just sets the state, so one instance is
+ * reused for every round played by a task with no allocation. Each instance
+ * belongs to a single task, so it needs no locking.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.MonteCarloSimulator
+ */
+final class RoundRandom extends LongShuffleSource
+{
+
+    /**
+     * State of the current round's stream.
+     */
+    private long state;
+
+    /**
+     * Starts the stream of the specified round.
+     *
+     * @param seed seed of the simulation.
+     * @param round index of the round.
+     */
+    void startRound(final long seed, final long round)
+    {
+        state = mix(seed + mix(round * GOLDEN_GAMMA));
+    }
+
+    /**
+     * @return the next 64 random bits of the round's stream.
+     */
+    @Override
+    public long nextLong()
+    {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+}
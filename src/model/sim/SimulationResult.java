@@ -0,0 +1,138 @@
+package model.sim;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import model.card.Suit;
+import util.ExceptionUtil;
+
+/**
+ * The results of a simulation run, holding the statistics of the score bet
+ * and of the suit bet on each suit over the same rounds.
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.sim.MonteCarloSimulator
+ */
+public final class SimulationResult
+{
+
+    private final BetStatistics scoreBet;
+    private final Map<Suit,BetStatistics> suitBets;
+    private final long elapsedNanos;
+
+    /**
+     * Creates the results of a simulation run.
+     *
+     * @param scoreBet statistics of the score bet.
+     * @param suitBets statistics of the suit bet on each suit.
+     * @param elapsedNanos time taken by the run.
+     * @throws NullPointerException if any statistics are null
+     * @throws IllegalArgumentException if a suit has no statistics
+     */
+    public SimulationResult(
+        final BetStatistics scoreBet, final Map<Suit,BetStatistics> suitBets, final long elapsedNanos)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(scoreBet, "Score bet statistics cannot be null");
+        ExceptionUtil.assertNotNull(suitBets, "Suit bet statistics cannot be null");
+        ExceptionUtil.assertLegalArgument(
+            suitBets.size() == Suit.values().length, "Every suit must have statistics"
+        );
+        this.scoreBet = scoreBet;
+        this.suitBets = Collections.unmodifiableMap(new EnumMap<>(suitBets));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the results of the same rounds with the bets paying the
+     * specified multipliers.
+     *
+     * @param multipliers the multipliers paid on a win.
+     * @return the results with the multipliers.
+     * @throws NullPointerException if the multipliers are null
+     *
+     * @see BetStatistics#withMultiplier(int)
+     */
+    public SimulationResult withMultipliers(final PayoutMultipliers multipliers) throws NullPointerException
+    {
+        ExceptionUtil.assertNotNull(multipliers, "Multipliers cannot be null");
+        final Map<Suit,BetStatistics> repriced = new EnumMap<>(Suit.class);
+        for (final Map.Entry<Suit,BetStatistics> entry : suitBets.entrySet())
+        {
+            repriced.put(entry.getKey(), entry.getValue().withMultiplier(multipliers.getSuitBetMultiplier()));
+        }
+        return new SimulationResult(
+            scoreBet.withMultiplier(multipliers.getScoreBetMultiplier()), repriced, elapsedNanos
+        );
+    }
+
+    /**
+     * @return the statistics of the score bet.
+     */
+    public BetStatistics getScoreBet()
+    {
+        return scoreBet;
+    }
+
+    /**
+     * @param suit a suit.
+     * @return the statistics of the suit bet on the suit.
+     */
+    public BetStatistics getSuitBet(final Suit suit)
+    {
+        return suitBets.get(suit);
+    }
+
+    /**
+     * @return an unmodifiable map of the statistics of the suit bet on each
+     * suit.
+     */
+    public Map<Suit,BetStatistics> getSuitBets()
+    {
+        return suitBets;
+    }
+
+    /**
+     * @return the number of rounds simulated.
+     */
+    public long getRounds()
+    {
+        return scoreBet.getRounds();
+    }
+
+    /**
+     * @return the time taken by the run in nanoseconds.
+     */
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the number of rounds simulated per second.
+     */
+    public double getRoundsPerSecond()
+    {
+        return getRounds() * 1e9 / Math.max(1, elapsedNanos);
+    }
+
+    /**
+     * String representation of the results, with a line per bet.
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder(String.format(
+            "Simulated %d rounds in %.3f s (%.0f rounds/s)", getRounds(), elapsedNanos / 1e9, getRoundsPerSecond()
+        ));
+        builder.append(System.lineSeparator()).append(scoreBet);
+        for (final BetStatistics suitBet : suitBets.values())
+        {
+            builder.append(System.lineSeparator()).append(suitBet);
+        }
+        return builder.toString();
+    }
+
+}
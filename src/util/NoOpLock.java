@@ -0,0 +1,65 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A {@link Lock} which does nothing, used where locking can be switched off
+ * (e.g. a single threaded engine) so the calling code does not need to check
+ * whether it should lock or not.
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public final class NoOpLock implements Lock
+{
+
+    /**
+     * Shared instance, the lock holds no state.
+     */
+    public static final Lock INSTANCE = new NoOpLock();
+
+    /**
+     * Private constructor, use {@link #INSTANCE}.
+     */
+    private NoOpLock()
+    {
+    }
+
+    @Override
+    public void lock()
+    {
+    }
+
+    @Override
+    public void lockInterruptibly()
+    {
+    }
+
+    @Override
+    public boolean tryLock()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean tryLock(final long time, final TimeUnit unit)
+    {
+        return true;
+    }
+
+    @Override
+    public void unlock()
+    {
+    }
+
+    /**
+     * Conditions cannot be supported without an actual lock.
+     */
+    @Override
+    public Condition newCondition()
+    {
+        throw new UnsupportedOperationException("No-op lock does not support conditions");
+    }
+
+}
@@ -0,0 +1,83 @@
+package util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Utility class to create executors which run each task on its own virtual
+ * thread.
+ *
+ * <p>The project is compiled for Java 8, so virtual threads (Java 21+) are
+ * looked up reflectively. When they are not available a cached pool of
+ * daemon platform threads is used instead, which behaves the same but costs
+ * a full thread per blocked task.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ */
+public final class VirtualThreads
+{
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, or null if the
+     * running JVM does not support virtual threads.
+     */
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    /**
+     * Private constructor, static methods only.
+     */
+    private VirtualThreads()
+    {
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads.
+     */
+    public static boolean isSupported()
+    {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor which runs every task on a new virtual thread, or
+     * on a daemon platform thread if virtual threads are not supported.
+     *
+     * @return a new thread per task executor.
+     */
+    public static ExecutorService newThreadPerTaskExecutor()
+    {
+        if (NEW_VIRTUAL_EXECUTOR != null)
+        {
+            try
+            {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            }
+            catch (final ReflectiveOperationException e)
+            {
+                // Fall through to platform threads
+            }
+        }
+        return Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Looks up the virtual thread executor factory method.
+     */
+    private static Method findVirtualExecutorFactory()
+    {
+        try
+        {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch (final NoSuchMethodException e)
+        {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package view;
+
+/**
+ * What a {@link RingBufferCallbackDispatcher} does when a callback's ring is
+ * full because the callback is not keeping up with the game.
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.RingBufferCallbackDispatcher
+ */
+public enum BackpressurePolicy
+{
+
+    /**
+     * The game waits until the callback has made room. No events are lost,
+     * but a slow callback slows down the game.
+     */
+    BLOCK,
+
+    /**
+     * The event is discarded for that callback only. The game is never
+     * slowed, but the callback misses events.
+     */
+    DROP,
+
+    /**
+     * Events that only report the latest state (bet updates and new decks)
+     * are held back and merged, so only the latest for each player (or the
+     * latest deck) is delivered. Other events wait for room as with
+     * {@link #BLOCK}, after any held back events, so ordering is kept.
+     */
+    COALESCE
+
+}
@@ -0,0 +1,51 @@
+package view;
+
+import java.util.Collection;
+
+import model.Player;
+
+/**
+ * A {@link GameCallback} which is notified once for a batch of players,
+ * rather than once per player, when the engine handles a batch request.
+ *
+ * <p>When bets are placed as a batch, a bulk callback subscribed to
+ * {@link GameEventType#BET_UPDATED} receives a single
+ * {@link #betsUpdated(Collection)} <b>instead of</b> a
+ * {@link #betUpdated(Player)} for each player. Bets placed one at a time are
+ * still notified through {@link #betUpdated(Player)}.</p>
+ *
+ * <p>When players are dealt to as a batch, the usual card and bust events are
+ * fired for each card, followed by a single
+ * {@link #playersDealt(Collection)} once every player has bust. This is
+ * delivered to every bulk callback whatever events it subscribes to, as it
+ * is not one of the per card events.</p>
+ *
+ * <p>Bulk notifications are only made to callbacks registered for all
+ * players. A bulk callback registered for a single player receives the usual
+ * per player events.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.TableEngine#placeBets(Collection)
+ * @see model.TableEngine#dealPlayers(Collection, int)
+ */
+public interface BulkGameCallback extends GameCallback
+{
+
+	/**
+	 * Updates the view about changes to the bets and points balances of a
+	 * batch of players.
+	 *
+	 * @param players the players whose bets have been updated, in the order
+	 *            the bets were requested.
+	 */
+	public void betsUpdated(Collection<Player> players);
+
+	/**
+	 * Updates the view when a batch of players have all been dealt to.
+	 *
+	 * @param players the players that were dealt to, in dealing order.
+	 */
+	public void playersDealt(Collection<Player> players);
+
+}
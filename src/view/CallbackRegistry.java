@@ -0,0 +1,312 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import util.ExceptionUtil;
+
+/**
+ * Holds registered callbacks as a separate array of listeners for each kind
+ * of event, so firing an event only touches the callbacks interested in it.
+ *
+ * <p>A {@link SelectiveGameCallback} is only listed against the events it
+ * subscribes to, any other callback is listed against all events. Firing an
+ * event with nobody subscribed is just a loop over an empty array.</p>
+ *
+ * <p>Callbacks can also be registered for a single player, in which case
+ * they are indexed by player ID and only receive that player's events (see
+ * {@link PlayerCallbackCollection}). A player event then costs a single map
+ * lookup rather than every seat's callback filtering out other players.</p>
+ *
+ * <p>The registry is copy-on-write: registering or removing a callback builds
+ * a new immutable snapshot of the arrays and publishes it through a volatile
+ * field (or concurrent map for players). Firing an event reads the current
+ * snapshot without locking and loops over an array that never changes, so a
+ * callback may register or remove callbacks (including itself) while events
+ * are being fired, from the same or another thread. Such a change takes
+ * effect from the next event fired.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.SelectiveGameCallback
+ */
+public final class CallbackRegistry implements GameCallbackCollection, PlayerCallbackCollection
+{
+
+    /**
+     * Shared empty listener array.
+     */
+    private static final GameCallback[] NO_LISTENERS = new GameCallback[0];
+
+    /**
+     * Every event type.
+     */
+    private static final Set<GameEventType> ALL_EVENTS = EnumSet.allOf(GameEventType.class);
+
+    /**
+     * The event types about a single player.
+     */
+    private static final Set<GameEventType> PLAYER_EVENTS = EnumSet.of(
+        GameEventType.ADD_PLAYER, GameEventType.REMOVE_PLAYER, GameEventType.BET_UPDATED,
+        GameEventType.PLAYER_CARD, GameEventType.PLAYER_BUST
+    );
+
+    /**
+     * Snapshot of the callbacks registered for all events.
+     */
+    private volatile Snapshot global;
+
+    /**
+     * Snapshot of the callbacks registered for each player, using the player
+     * ID as the map key.
+     */
+    private final Map<String,Snapshot> players;
+
+    /**
+     * Creates an empty registry.
+     */
+    public CallbackRegistry()
+    {
+        this.global = new Snapshot(NO_LISTENERS, ALL_EVENTS);
+        this.players = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers the specified callback for the events it subscribes to.
+     */
+    @Override
+    public synchronized void registerCallback(final GameCallback callback)
+    {
+        global = global.with(callback);
+    }
+
+    /**
+     * Removes the specified callback from all events.
+     */
+    @Override
+    public synchronized void removeCallback(final GameCallback callback)
+    {
+        global = global.without(callback);
+    }
+
+    /**
+     * Registers the specified callback for the events of a single player.
+     */
+    @Override
+    public synchronized void registerPlayerCallback(final String playerId, final GameCallback callback)
+    {
+        ExceptionUtil.assertNotNull(playerId, "Player ID cannot be null");
+        final Snapshot forPlayer = players.get(playerId);
+        players.put(
+            playerId,
+            forPlayer == null ? new Snapshot(new GameCallback[] { callback }, PLAYER_EVENTS) : forPlayer.with(callback)
+        );
+    }
+
+    /**
+     * Removes the specified callback from the events of a single player.
+     */
+    @Override
+    public synchronized void removePlayerCallback(final String playerId, final GameCallback callback)
+    {
+        ExceptionUtil.assertNotNull(playerId, "Player ID cannot be null");
+        final Snapshot forPlayer = players.get(playerId);
+        if (forPlayer != null)
+        {
+            final Snapshot updated = forPlayer.without(callback);
+            if (updated.registered.length == 0)
+            {
+                players.remove(playerId);
+            }
+            else
+            {
+                players.put(playerId, updated);
+            }
+        }
+    }
+
+    /**
+     * Returns the callbacks to invoke for the specified event type. The
+     * returned array must not be modified.
+     *
+     * @param type the type of event being fired.
+     * @return the callbacks subscribed to the event, possibly empty.
+     */
+    public GameCallback[] getListeners(final GameEventType type)
+    {
+        return global.listeners[type.ordinal()];
+    }
+
+    /**
+     * Returns the callbacks registered for the specified player to invoke for
+     * the specified event type, in addition to those returned by
+     * {@link #getListeners(GameEventType)}. The returned array must not be
+     * modified.
+     *
+     * @param type the type of event being fired.
+     * @param playerId the ID of the player the event is about.
+     * @return the player's callbacks subscribed to the event, possibly empty.
+     */
+    public GameCallback[] getPlayerListeners(final GameEventType type, final String playerId)
+    {
+        final Snapshot forPlayer = players.get(playerId);
+        return forPlayer == null ? NO_LISTENERS : forPlayer.listeners[type.ordinal()];
+    }
+
+    /**
+     * Returns every {@link BulkGameCallback} registered for all players,
+     * whatever events it subscribes to, in registration order. The returned
+     * array must not be modified.
+     *
+     * @return the bulk callbacks, possibly empty.
+     */
+    public BulkGameCallback[] getBulkListeners()
+    {
+        return global.bulk;
+    }
+
+    /**
+     * @param type the type of event.
+     * @return true if any callback is subscribed to the event type.
+     */
+    public boolean hasListeners(final GameEventType type)
+    {
+        return global.listeners[type.ordinal()].length > 0;
+    }
+
+    /**
+     * Returns the events the specified callback handles, which is all events
+     * unless it is a {@link SelectiveGameCallback}.
+     *
+     * @param callback the callback.
+     * @return the events the callback handles.
+     */
+    public static Set<GameEventType> getSubscribedEvents(final GameCallback callback)
+    {
+        if (callback instanceof SelectiveGameCallback)
+        {
+            final Set<GameEventType> events = ((SelectiveGameCallback) callback).getSubscribedEvents();
+            return events.isEmpty() ? EnumSet.noneOf(GameEventType.class) : EnumSet.copyOf(events);
+        }
+        return EnumSet.copyOf(ALL_EVENTS);
+    }
+
+    /**
+     * An immutable set of registered callbacks and the listener arrays built
+     * from them.
+     */
+    private static final class Snapshot
+    {
+        /**
+         * All registered callbacks in registration order.
+         */
+        private final GameCallback[] registered;
+
+        /**
+         * The events callbacks in this snapshot may receive.
+         */
+        private final Set<GameEventType> allowed;
+
+        /**
+         * Listener arrays indexed by {@link GameEventType#ordinal()}.
+         */
+        private final GameCallback[][] listeners;
+
+        /**
+         * The registered callbacks which are bulk callbacks.
+         */
+        private final BulkGameCallback[] bulk;
+
+        private Snapshot(final GameCallback[] registered, final Set<GameEventType> allowed)
+        {
+            this.registered = registered;
+            this.allowed = allowed;
+            this.listeners = buildListeners();
+            this.bulk = buildBulk();
+        }
+
+        /**
+         * @return a copy of this snapshot with the callback added.
+         */
+        private Snapshot with(final GameCallback callback)
+        {
+            final GameCallback[] added = Arrays.copyOf(registered, registered.length + 1);
+            added[registered.length] = callback;
+            return new Snapshot(added, allowed);
+        }
+
+        /**
+         * @return a copy of this snapshot with the first matching callback
+         * removed, or this snapshot if it is not registered.
+         */
+        private Snapshot without(final GameCallback callback)
+        {
+            for (int i = 0; i < registered.length; i++)
+            {
+                if (registered[i].equals(callback))
+                {
+                    final GameCallback[] removed = new GameCallback[registered.length - 1];
+                    System.arraycopy(registered, 0, removed, 0, i);
+                    System.arraycopy(registered, i + 1, removed, i, registered.length - i - 1);
+                    return new Snapshot(removed, allowed);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Builds the listener arrays from the registered callbacks, limited
+         * to the allowed events.
+         */
+        private GameCallback[][] buildListeners()
+        {
+            final GameEventType[] types = GameEventType.values();
+            final List<List<GameCallback>> byType = new ArrayList<>(types.length);
+            for (int i = 0; i < types.length; i++)
+            {
+                byType.add(new ArrayList<>());
+            }
+            for (final GameCallback callback : registered)
+            {
+                for (final GameEventType type : getSubscribedEvents(callback))
+                {
+                    if (allowed.contains(type))
+                    {
+                        byType.get(type.ordinal()).add(callback);
+                    }
+                }
+            }
+
+            final GameCallback[][] built = new GameCallback[types.length][];
+            for (int i = 0; i < types.length; i++)
+            {
+                final List<GameCallback> forType = byType.get(i);
+                built[i] = forType.isEmpty() ? NO_LISTENERS : forType.toArray(new GameCallback[0]);
+            }
+            return built;
+        }
+
+        /**
+         * Builds the array of the registered callbacks which are bulk
+         * callbacks.
+         */
+        private BulkGameCallback[] buildBulk()
+        {
+            final List<BulkGameCallback> found = new ArrayList<>();
+            for (final GameCallback callback : registered)
+            {
+                if (callback instanceof BulkGameCallback)
+                {
+                    found.add((BulkGameCallback) callback);
+                }
+            }
+            return found.toArray(new BulkGameCallback[0]);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package view;
+
+import model.Player;
+import model.card.Card;
+import model.card.Deck;
+import model.card.Hand;
+
+/**
+ * The kinds of event delivered to a {@link GameCallback}, one for each of its
+ * methods.
+ *
+ * <p>Each value knows how to deliver itself to a callback, so an event can be
+ * stored as its type plus arguments and delivered later (e.g. by
+ * {@link RingBufferCallbackDispatcher}).</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.GameCallback
+ */
+public enum GameEventType
+{
+
+    ADD_PLAYER
+    {
+        @Override
+        public void deliver(
+            final GameCallback callback, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            callback.addPlayer(player);
+        }
+    },
+    REMOVE_PLAYER
+    {
+        @Override
+        public void deliver(
+            final GameCallback callback, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            callback.removePlayer(player);
+        }
+    },
+    BET_UPDATED
+    {
+        @Override
+        public void deliver(
+            final GameCallback callback, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            callback.betUpdated(player);
+        }
+    },
+    NEW_DECK
+    {
+        @Override
+        public void deliver(
+            final GameCallback callback, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            callback.newDeck(deck);
+        }
+    },
+    PLAYER_CARD
+    {
+        @Override
+        public void deliver(
+            final GameCallback callback, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            callback.playerCard(player, card);
+        }
+    },
+    PLAYER_BUST
+    {
+        @Override
+        public void deliver(
+            final GameCallback callback, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            callback.playerBust(player, card);
+        }
+    },
+    HOUSE_CARD
+    {
+        @Override
+        public void deliver(
+            final GameCallback callback, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            callback.houseCard(hand, card);
+        }
+    },
+    HOUSE_BUST
+    {
+        @Override
+        public void deliver(
+            final GameCallback callback, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            callback.houseBust(hand, card);
+        }
+    };
+
+    /**
+     * Invokes the callback method for this type of event, passing the
+     * relevant arguments. Arguments not used by this type are ignored.
+     *
+     * @param callback the callback to deliver to.
+     * @param player the player the event is about, if any.
+     * @param hand the house hand, if any.
+     * @param card the card dealt, if any.
+     * @param deck the new deck, if any.
+     */
+    public abstract void deliver(GameCallback callback, Player player, Hand hand, Card card, Deck deck);
+
+}
@@ -0,0 +1,45 @@
+package view;
+
+import model.Player;
+import model.card.DeckComposition;
+
+/**
+ * A {@link GameCallback} which is also told each player's live chance of
+ * busting on their next card while they are being dealt to.
+ *
+ * <p>After each card dealt to a player that does not bust them, an odds
+ * callback subscribed to {@link GameEventType#PLAYER_CARD} receives
+ * {@link #nextCardOdds(Player, double)} straight after
+ * {@link #playerCard(Player, model.card.Card)}. This applies to callbacks
+ * registered for all players and for the single player being dealt to, so
+ * each seat can show its own odds.</p>
+ *
+ * <p>The probability is read from the composition of the cards remaining in
+ * the engine's deck, which the deck keeps up to date as each card is
+ * removed, so this costs a few operations per card and allocates nothing. It
+ * is only worked out when an odds callback is registered.</p>
+ *
+ * <p>A player's full win probability is too costly to work out for every
+ * card at every table. It can be calculated on demand with
+ * {@link model.odds.OddsCalculator} from the deck's
+ * {@link DeckComposition}.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see model.TableEngine#dealPlayer(String, int)
+ * @see DeckComposition#getBustProbability(int)
+ */
+public interface OddsGameCallback extends GameCallback
+{
+
+	/**
+	 * Updates the view with the probability that the next card dealt to a
+	 * player will bust them.
+	 *
+	 * @param player the player being dealt to.
+	 * @param bustProbability the probability that the player's next card
+	 *            busts them, given the cards remaining in the deck.
+	 */
+	public void nextCardOdds(Player player, double bustProbability);
+
+}
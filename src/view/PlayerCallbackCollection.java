@@ -0,0 +1,43 @@
+package view;
+
+/**
+ * Provides methods for adding or removing a GameCallback which only receives
+ * the events about a single player.
+ *
+ * <p>A callback registered for a player is invoked for that player's
+ * {@link GameEventType#ADD_PLAYER}, {@link GameEventType#REMOVE_PLAYER},
+ * {@link GameEventType#BET_UPDATED}, {@link GameEventType#PLAYER_CARD} and
+ * {@link GameEventType#PLAYER_BUST} events only. House and deck events are
+ * only delivered to callbacks registered through
+ * {@link GameCallbackCollection}. A {@link SelectiveGameCallback} can narrow
+ * the player events further.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.GameCallbackCollection
+ */
+public interface PlayerCallbackCollection
+{
+	/**
+	 * Registers a {@link GameCallback} for the events of the player with the
+	 * specified ID. The player does not need to have been added yet.
+	 *
+	 * @param playerId the ID of the player whose events are wanted.
+	 * @param callback the {@link GameCallback} to be added.
+	 *
+	 * @see view.GameCallback
+	 */
+	public void registerPlayerCallback(String playerId, GameCallback callback);
+
+
+	/**
+	 * Removes a {@link GameCallback} previously registered for the player
+	 * with the specified ID.
+	 *
+	 * @param playerId the ID of the player the callback was registered for.
+	 * @param callback the {@link GameCallback} to be removed.
+	 *
+	 * @see view.GameCallback
+	 */
+	public void removePlayerCallback(String playerId, GameCallback callback);
+}
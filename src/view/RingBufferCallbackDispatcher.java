@@ -0,0 +1,616 @@
+package view;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import model.Player;
+import model.card.Card;
+import model.card.Deck;
+import model.card.Hand;
+import util.ExceptionUtil;
+
+/**
+ * A {@link GameCallback} which passes every event on to other callbacks
+ * asynchronously, so slow callbacks do not slow down dealing.
+ *
+ * <p>Register this dispatcher with the engine, then register the actual
+ * callbacks with the dispatcher. Each of those callbacks gets its own
+ * preallocated ring buffer and its own consumer thread which delivers the
+ * events in the order they were published. A {@link SelectiveGameCallback}
+ * only has the events it subscribes to published to its ring. The engine thread only copies the
+ * event into the next slot of each ring.</p>
+ *
+ * <p>Each ring has a single producer at a time: publishing to a ring holds
+ * that ring's own producer lock, so it is still safe to use with an engine
+ * in concurrent mode. A ring which is full and waiting under
+ * {@link BackpressurePolicy#BLOCK} only holds up producers when they reach
+ * that ring, so other threads can still publish to the rings before it.
+ * Every callback sees the events published by any one thread in the order
+ * they were published, but events published at the same time by different
+ * threads may reach different callbacks in a different order. What happens
+ * when a ring is full is decided by the {@link BackpressurePolicy}, and how
+ * threads wait is decided by the {@link WaitStrategy}.</p>
+ *
+ * <p><b>Note:</b> events hold references to the live player and hand, which
+ * may have changed by the time a callback sees the event. Callbacks must not
+ * call back into the engine when using {@link BackpressurePolicy#BLOCK}, as
+ * the engine may be waiting on that callback.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.WaitStrategy
+ * @see view.BackpressurePolicy
+ */
+public class RingBufferCallbackDispatcher implements GameCallback, GameCallbackCollection, AutoCloseable
+{
+
+    /**
+     * Number of slots in each ring unless otherwise specified.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Logger for failures thrown by callbacks.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RingBufferCallbackDispatcher.class.getName());
+
+    /**
+     * Number of slots in each ring, a power of two.
+     */
+    private final int capacity;
+
+    /**
+     * How producers and consumers wait.
+     */
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * What to do when a ring is full.
+     */
+    private final BackpressurePolicy backpressurePolicy;
+
+    /**
+     * One ring for each registered callback.
+     */
+    private final List<CallbackRing> rings;
+
+    /**
+     * Creates a dispatcher with the default capacity that blocks when full.
+     */
+    public RingBufferCallbackDispatcher()
+    {
+        this(DEFAULT_CAPACITY, WaitStrategy.BLOCKING, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * Creates a dispatcher with the specified settings.
+     *
+     * @param capacity number of slots in each ring, must be a positive power
+     * of two.
+     * @param waitStrategy how threads wait on a ring.
+     * @param backpressurePolicy what to do when a ring is full.
+     * @throws NullPointerException
+     * @throws IllegalArgumentException
+     */
+    public RingBufferCallbackDispatcher(
+        final int capacity, final WaitStrategy waitStrategy, final BackpressurePolicy backpressurePolicy)
+        throws NullPointerException, IllegalArgumentException
+    {
+        ExceptionUtil.assertNotNull(waitStrategy, "Wait strategy cannot be null");
+        ExceptionUtil.assertNotNull(backpressurePolicy, "Backpressure policy cannot be null");
+        ExceptionUtil.assertLegalArgument(
+            capacity > 0 && Integer.bitCount(capacity) == 1,
+            "Capacity must be a positive power of two"
+        );
+        this.capacity = capacity;
+        this.waitStrategy = waitStrategy;
+        this.backpressurePolicy = backpressurePolicy;
+        this.rings = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Creates a ring and consumer thread for the specified callback.
+     */
+    @Override
+    public void registerCallback(final GameCallback callback)
+    {
+        ExceptionUtil.assertNotNull(callback, "Callback cannot be null");
+        final CallbackRing ring = new CallbackRing(callback);
+        rings.add(ring);
+        ring.thread.start();
+    }
+
+    /**
+     * Stops delivering to the specified callback. Events already in its ring
+     * are still delivered. Safe to call from the callback itself.
+     */
+    @Override
+    public void removeCallback(final GameCallback callback)
+    {
+        for (final CallbackRing ring : rings)
+        {
+            if (ring.callback.equals(callback))
+            {
+                rings.remove(ring);
+                ring.stop();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Publishes any events held back by {@link BackpressurePolicy#COALESCE},
+     * waiting for room if necessary.
+     */
+    public void flush()
+    {
+        for (final CallbackRing ring : rings)
+        {
+            ring.producerLock.lock();
+            try
+            {
+                ring.flushPending(true);
+            }
+            finally
+            {
+                ring.producerLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes any held back events, then waits for every callback to be
+     * delivered all of its events and stops the consumer threads. The
+     * dropped and coalesced counts remain available after closing.
+     */
+    @Override
+    public void close()
+    {
+        flush();
+        for (final CallbackRing ring : rings)
+        {
+            ring.stop();
+            if (ring.thread != Thread.currentThread())
+            {
+                try
+                {
+                    ring.thread.join();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the total number of events discarded under
+     * {@link BackpressurePolicy#DROP}.
+     */
+    public long getDroppedCount()
+    {
+        long total = 0;
+        for (final CallbackRing ring : rings)
+        {
+            total += ring.dropped;
+        }
+        return total;
+    }
+
+    /**
+     * @return the total number of events merged into a later event under
+     * {@link BackpressurePolicy#COALESCE}.
+     */
+    public long getCoalescedCount()
+    {
+        long total = 0;
+        for (final CallbackRing ring : rings)
+        {
+            total += ring.coalesced;
+        }
+        return total;
+    }
+
+    @Override
+    public void addPlayer(final Player player)
+    {
+        publish(GameEventType.ADD_PLAYER, player, null, null, null);
+    }
+
+    @Override
+    public void removePlayer(final Player player)
+    {
+        publish(GameEventType.REMOVE_PLAYER, player, null, null, null);
+    }
+
+    @Override
+    public void betUpdated(final Player player)
+    {
+        publish(GameEventType.BET_UPDATED, player, null, null, null);
+    }
+
+    @Override
+    public void newDeck(final Deck deck)
+    {
+        publish(GameEventType.NEW_DECK, null, null, null, deck);
+    }
+
+    @Override
+    public void playerCard(final Player player, final Card card)
+    {
+        publish(GameEventType.PLAYER_CARD, player, null, card, null);
+    }
+
+    @Override
+    public void playerBust(final Player player, final Card card)
+    {
+        publish(GameEventType.PLAYER_BUST, player, null, card, null);
+    }
+
+    @Override
+    public void houseCard(final Hand houseHand, final Card card)
+    {
+        publish(GameEventType.HOUSE_CARD, null, houseHand, card, null);
+    }
+
+    @Override
+    public void houseBust(final Hand houseHand, final Card card)
+    {
+        publish(GameEventType.HOUSE_BUST, null, houseHand, card, null);
+    }
+
+    /**
+     * Publishes the event to every ring, holding each ring's producer lock in
+     * turn so each ring only ever has one producer at a time.
+     */
+    private void publish(
+        final GameEventType type, final Player player, final Hand hand, final Card card, final Deck deck)
+    {
+        for (final CallbackRing ring : rings)
+        {
+            if (ring.events.contains(type))
+            {
+                ring.producerLock.lock();
+                try
+                {
+                    ring.publish(type, player, hand, card, deck);
+                }
+                finally
+                {
+                    ring.producerLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * A single event, either a slot in a ring or an event held back while
+     * coalescing.
+     */
+    private static final class Slot
+    {
+        private GameEventType type;
+        private Player player;
+        private Hand hand;
+        private Card card;
+        private Deck deck;
+
+        private void set(
+            final GameEventType type, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            this.type = type;
+            this.player = player;
+            this.hand = hand;
+            this.card = card;
+            this.deck = deck;
+        }
+
+        /**
+         * Clears references once delivered so they can be collected.
+         */
+        private void clear()
+        {
+            set(null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Ring buffer and consumer thread for a single callback.
+     *
+     * <p>The producer writes the slot at {@code published} and then advances
+     * it, and the consumer delivers the slot at {@code consumed} and then
+     * advances it. Each counter is only written by one side, so no locking is
+     * needed.</p>
+     */
+    private final class CallbackRing implements Runnable
+    {
+        private final GameCallback callback;
+        private final Set<GameEventType> events;
+        private final Slot[] slots;
+        private final int mask;
+        private final Thread thread;
+
+        /**
+         * Held while publishing to this ring, so it has one producer at a
+         * time.
+         */
+        private final Lock producerLock;
+
+        /**
+         * Events held back while coalescing, in publish order. Only used while
+         * holding the producer lock.
+         */
+        private final Map<Object,Slot> pending;
+
+        /**
+         * Preallocated slots for holding back events, reused once the events
+         * are written. Only used while holding the producer lock.
+         */
+        private final Deque<Slot> spareSlots;
+
+        /**
+         * Whether any events are held back, so the consumer can check without
+         * the producer lock.
+         */
+        private volatile boolean holding;
+
+        private volatile long published;
+        private volatile long consumed;
+        private volatile boolean running;
+        private volatile Thread waitingProducer;
+        private volatile long dropped;
+        private volatile long coalesced;
+
+        private CallbackRing(final GameCallback callback)
+        {
+            this.callback = callback;
+            this.events = CallbackRegistry.getSubscribedEvents(callback);
+            this.slots = new Slot[capacity];
+            for (int i = 0; i < capacity; i++)
+            {
+                slots[i] = new Slot();
+            }
+            this.mask = capacity - 1;
+            this.producerLock = new ReentrantLock();
+            this.pending = new LinkedHashMap<>();
+            this.spareSlots = new ArrayDeque<>(capacity);
+            if (backpressurePolicy == BackpressurePolicy.COALESCE)
+            {
+                for (int i = 0; i < capacity; i++)
+                {
+                    spareSlots.push(new Slot());
+                }
+            }
+            this.running = true;
+            this.thread = new Thread(this, "callback-dispatch-" + callback.getClass().getSimpleName());
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Publishes an event to this ring following the backpressure policy.
+         */
+        private void publish(
+            final GameEventType type, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            if (backpressurePolicy == BackpressurePolicy.DROP && !hasRoom())
+            {
+                dropped++;
+            }
+            else if (backpressurePolicy == BackpressurePolicy.COALESCE)
+            {
+                publishCoalescing(type, player, hand, card, deck);
+            }
+            else
+            {
+                write(type, player, hand, card, deck);
+            }
+        }
+
+        /**
+         * Publishes an event under {@link BackpressurePolicy#COALESCE}. State
+         * events are held back while the ring is full, replacing any held back
+         * event for the same player (or deck). Any other event first waits for
+         * the held back events to be written so ordering is kept. Held back
+         * events are also written by the consumer once it has made room, so
+         * they are delivered even if nothing more is published.
+         */
+        private void publishCoalescing(
+            final GameEventType type, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            flushPending(false);
+            final boolean stateEvent = (type == GameEventType.BET_UPDATED || type == GameEventType.NEW_DECK);
+            if (!stateEvent)
+            {
+                flushPending(true);
+                write(type, player, hand, card, deck);
+            }
+            else if (pending.isEmpty() && hasRoom())
+            {
+                write(type, player, hand, card, deck);
+            }
+            else
+            {
+                final Object key = (type == GameEventType.NEW_DECK) ? type : player.getId();
+                Slot held = pending.remove(key);
+                if (held != null)
+                {
+                    coalesced++;
+                }
+                else
+                {
+                    held = takeSpareSlot();
+                }
+                held.set(type, player, hand, card, deck);
+                pending.put(key, held);
+                holding = true;
+            }
+        }
+
+        /**
+         * Takes a preallocated slot to hold back an event. A new slot is only
+         * allocated when more events are held back than the ring has slots.
+         */
+        private Slot takeSpareSlot()
+        {
+            final Slot spare = spareSlots.poll();
+            return (spare != null) ? spare : new Slot();
+        }
+
+        /**
+         * Writes held back events in order while there is room, or waiting
+         * for room if specified.
+         */
+        private void flushPending(final boolean waitForRoom)
+        {
+            final Iterator<Slot> held = pending.values().iterator();
+            while (held.hasNext() && (waitForRoom || hasRoom()))
+            {
+                final Slot slot = held.next();
+                write(slot.type, slot.player, slot.hand, slot.card, slot.deck);
+                held.remove();
+                slot.clear();
+                spareSlots.push(slot);
+            }
+            holding = !pending.isEmpty();
+        }
+
+        /**
+         * Called by the consumer to write any held back events while there is
+         * room. Skipped if a producer is publishing, as it writes them itself,
+         * so the consumer never waits on a producer.
+         */
+        private void drainPending()
+        {
+            if (holding && producerLock.tryLock())
+            {
+                try
+                {
+                    flushPending(false);
+                }
+                finally
+                {
+                    producerLock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Waits for a free slot, then fills it and publishes it to the
+         * consumer. The event is discarded if the ring is stopped while
+         * waiting.
+         */
+        private void write(
+            final GameEventType type, final Player player, final Hand hand, final Card card, final Deck deck)
+        {
+            int attempt = 0;
+            while (!hasRoom())
+            {
+                if (!running)
+                {
+                    return;
+                }
+                waitingProducer = Thread.currentThread();
+                waitStrategy.idle(attempt++);
+            }
+            waitingProducer = null;
+
+            final long sequence = published;
+            slots[(int) (sequence & mask)].set(type, player, hand, card, deck);
+            published = sequence + 1;
+            if (waitStrategy.needsWakeUp())
+            {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private boolean hasRoom()
+        {
+            return published - consumed < capacity;
+        }
+
+        /**
+         * Stops the consumer once it has delivered the events already
+         * published.
+         */
+        private void stop()
+        {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+
+        /**
+         * Consumer loop, delivering events in order until stopped.
+         */
+        @Override
+        public void run()
+        {
+            long next = 0;
+            int attempt = 0;
+            while (true)
+            {
+                /*
+                 * Read running before published, so that once stopped every
+                 * event published before the stop is still delivered.
+                 */
+                final boolean stopping = !running;
+                if (next < published)
+                {
+                    final Slot slot = slots[(int) (next & mask)];
+                    deliver(slot);
+                    slot.clear();
+                    consumed = ++next;
+                    attempt = 0;
+
+                    final Thread producer = waitingProducer;
+                    if (producer != null && waitStrategy.needsWakeUp())
+                    {
+                        LockSupport.unpark(producer);
+                    }
+                    drainPending();
+                }
+                else if (stopping)
+                {
+                    return;
+                }
+                else
+                {
+                    drainPending();
+                    if (next == published)
+                    {
+                        waitStrategy.idle(attempt++);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Delivers a single event, logging rather than propagating any
+         * failure so one bad event does not stop the callback.
+         */
+        private void deliver(final Slot slot)
+        {
+            try
+            {
+                slot.type.deliver(callback, slot.player, slot.hand, slot.card, slot.deck);
+            }
+            catch (final RuntimeException e)
+            {
+                LOGGER.log(Level.WARNING, "Callback failed to handle " + slot.type, e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package view;
+
+import java.util.Set;
+
+/**
+ * A {@link GameCallback} which only handles some kinds of event.
+ *
+ * <p>When registered with an engine, the callback is only invoked for the
+ * events it subscribes to. Its other methods are never called, so they can be
+ * left empty. This avoids the cost of calling every callback for every card
+ * when most callbacks only care about a few events.</p>
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.GameEventType
+ * @see view.CallbackRegistry
+ */
+public interface SelectiveGameCallback extends GameCallback
+{
+
+    /**
+     * Returns the events this callback handles. This is read once when the
+     * callback is registered, so should not change afterwards.
+     *
+     * @return the events this callback handles.
+     */
+    public Set<GameEventType> getSubscribedEvents();
+
+}
@@ -0,0 +1,114 @@
+package view;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits on a {@link RingBufferCallbackDispatcher} ring, either a
+ * consumer waiting for the next event or a blocked producer waiting for a
+ * free slot. Trades latency against CPU use.
+ *
+ * @author Robert Beardow, Student ID 3461721
+ *
+ * @see view.RingBufferCallbackDispatcher
+ */
+public enum WaitStrategy
+{
+
+    /**
+     * Spins without giving up the CPU. Lowest latency, but uses a whole core
+     * per waiting thread.
+     */
+    BUSY_SPIN
+    {
+        @Override
+        void idle(final int attempt)
+        {
+            // Spin
+        }
+    },
+
+    /**
+     * Yields the CPU to other threads between checks.
+     */
+    YIELDING
+    {
+        @Override
+        void idle(final int attempt)
+        {
+            Thread.yield();
+        }
+    },
+
+    /**
+     * Yields for a short time, then sleeps briefly between checks.
+     */
+    SLEEPING
+    {
+        @Override
+        void idle(final int attempt)
+        {
+            if (attempt < SPIN_TRIES)
+            {
+                Thread.yield();
+            }
+            else
+            {
+                LockSupport.parkNanos(SLEEP_NANOS);
+            }
+        }
+    },
+
+    /**
+     * Parks until woken by the other side of the ring. Lowest CPU use but the
+     * highest latency. The park times out so a missed wake up only delays
+     * delivery.
+     */
+    BLOCKING
+    {
+        @Override
+        void idle(final int attempt)
+        {
+            LockSupport.parkNanos(BLOCK_NANOS);
+        }
+
+        @Override
+        boolean needsWakeUp()
+        {
+            return true;
+        }
+    };
+
+    /**
+     * Number of attempts that yield before sleeping.
+     */
+    private static final int SPIN_TRIES = 100;
+
+    /**
+     * Time to sleep for each attempt once sleeping.
+     */
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Maximum time to park when blocking.
+     */
+    private static final long BLOCK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Waits once before the condition is checked again.
+     *
+     * @param attempt number of times the thread has already waited for the
+     * current condition.
+     */
+    abstract void idle(int attempt);
+
+    /**
+     * @return true if waiting threads must be explicitly woken when the
+     * condition they are waiting for changes.
+     */
+    boolean needsWakeUp()
+    {
+        return false;
+    }
+
+}